@@ -23,6 +23,7 @@ public class CorsConfig {
         config.setAllowedOriginPatterns(Arrays.asList("*")); // En producción, especificar el dominio exacto
         config.setAllowedHeaders(Arrays.asList("*"));
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        config.setExposedHeaders(Arrays.asList("X-Total-Count", "X-Next-Cursor", "Idempotent-Replayed", "Location", "Retry-After"));
         config.setMaxAge(3600L);
         
         source.registerCorsConfiguration("/**", config);
@@ -0,0 +1,101 @@
+package com.pasteleria.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Adelanta las secuencias de IDs por encima del MAX(id) de sus tablas al arrancar
+ * Las tablas que antes usaban IDENTITY ya tienen filas cuando Hibernate crea la secuencia desde 1,
+ * y sin esto los primeros INSERT chocarían con claves primarias existentes
+ */
+@Component
+public class SequenceSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceSeeder.class);
+
+    // Debe coincidir con allocationSize de los @SequenceGenerator: el optimizador "pooled"
+    // entrega los IDs (valor - allocationSize, valor], así que la secuencia debe quedar un bloque por delante
+    private static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Secuencia y tablas cuyos IDs salieron (o salen) de ella; las de archivo conservan el ID original
+     */
+    private static final List<SeededSequence> SEQUENCES = List.of(
+            new SeededSequence("orders_seq", List.of("orders", "orders_archive")),
+            new SeededSequence("order_items_seq", List.of("order_items", "order_items_archive")),
+            new SeededSequence("delivery_assignment_seq", List.of("delivery_assignment")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Se inyecta para que el esquema (ddl-auto) ya esté creado o actualizado antes de sembrar
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        String database = jdbcTemplate.execute(
+                (Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        String product = database == null ? "" : database.toLowerCase(Locale.ROOT);
+
+        for (SeededSequence sequence : SEQUENCES) {
+            long maxId = maxId(sequence.tables());
+            if (maxId == 0) {
+                continue;
+            }
+            long next = maxId + 1 + ALLOCATION_SIZE;
+            if (product.contains("mysql") || product.contains("mariadb")) {
+                seedTable(sequence.name(), next);
+            } else if (product.contains("h2")) {
+                seedH2(sequence.name(), next);
+            } else {
+                log.warn("No se sabe sembrar la secuencia {} en {}; verifique que supere el MAX(id)",
+                        sequence.name(), database);
+            }
+        }
+    }
+
+    private long maxId(List<String> tables) {
+        long max = 0;
+        for (String table : tables) {
+            Long tableMax = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (tableMax != null) {
+                max = Math.max(max, tableMax);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * MySQL no tiene secuencias: Hibernate las emula con una tabla de una fila y columna next_val
+     */
+    private void seedTable(String sequence, long next) {
+        int updated = jdbcTemplate.update(
+                "UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", next, next);
+        if (updated > 0) {
+            log.info("Secuencia {} adelantada a {}", sequence, next);
+        }
+    }
+
+    private void seedH2(String sequence, long next) {
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                Long.class, sequence.toUpperCase(Locale.ROOT));
+        if (!current.isEmpty() && current.get(0) < next) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+            log.info("Secuencia {} adelantada a {}", sequence, next);
+        }
+    }
+
+    private record SeededSequence(String name, List<String> tables) {
+    }
+}
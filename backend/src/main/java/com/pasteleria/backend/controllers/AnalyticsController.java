@@ -0,0 +1,101 @@
+package com.pasteleria.backend.controllers;
+
+import com.pasteleria.backend.dto.ProductSalesRank;
+import com.pasteleria.backend.dto.RevenuePoint;
+import com.pasteleria.backend.models.RollupGranularity;
+import com.pasteleria.backend.services.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador de analítica de ventas
+ * Endpoints: /api/analytics/*
+ * Solo lee los acumulados; nunca recorre pedidos ni items
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AnalyticsController {
+
+    // Máximo de días por consulta según la granularidad
+    private static final long MAX_DIAS_POR_DIA = 731;
+    private static final long MAX_DIAS_POR_HORA = 31;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    /**
+     * GET /api/analytics/admin/revenue
+     * Serie de pedidos e ingresos por día u hora entre dos fechas (inclusive) - Solo ADMIN
+     * Por defecto, los últimos 30 días
+     */
+    @GetMapping("/admin/revenue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam(defaultValue = "DIA") RollupGranularity granularidad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(29);
+        long dias = ChronoUnit.DAYS.between(inicio, fin) + 1;
+        long maximo = granularidad == RollupGranularity.DIA ? MAX_DIAS_POR_DIA : MAX_DIAS_POR_HORA;
+        if (dias < 1 || dias > maximo) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(
+                    "El rango debe tener entre 1 y " + maximo + " días para la granularidad " + granularidad));
+        }
+
+        List<RevenuePoint> serie = salesRollupService.getRevenueSeries(
+                granularidad, inicio.atStartOfDay(), fin.plusDays(1).atStartOfDay());
+        return ResponseEntity.ok(serie);
+    }
+
+    /**
+     * GET /api/analytics/admin/top-products
+     * Productos más vendidos por unidades entre dos fechas (inclusive) - Solo ADMIN
+     * Por defecto, los últimos 30 días
+     */
+    @GetMapping("/admin/top-products")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ProductSalesRank>> getTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "10") int limite) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(29);
+        LocalDateTime hastaExclusivo = fin.plusDays(1).atStartOfDay();
+        return ResponseEntity.ok(salesRollupService.getTopProducts(
+                inicio.atStartOfDay(), hastaExclusivo, Math.max(1, Math.min(limite, 100))));
+    }
+
+    /**
+     * POST /api/analytics/admin/backfill
+     * Reconstruye los acumulados desde el historial de pedidos - Solo ADMIN
+     */
+    @PostMapping("/admin/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfill() {
+        try {
+            Map<String, Object> result = salesRollupService.backfill();
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Clase interna para respuestas de error
+    private static class ErrorResponse {
+        private String message;
+        public ErrorResponse(String message) { this.message = message; }
+        @SuppressWarnings("unused")
+        public String getMessage() { return message; }
+    }
+}
@@ -3,6 +3,8 @@ package com.pasteleria.backend.controllers;
 import com.pasteleria.backend.dto.AuthResponse;
 import com.pasteleria.backend.dto.LoginRequest;
 import com.pasteleria.backend.dto.RegisterRequest;
+import com.pasteleria.backend.dto.StreamTicketResponse;
+import com.pasteleria.backend.security.StreamTicketStore;
 import com.pasteleria.backend.services.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private StreamTicketStore streamTicketStore;
+
     /**
      * POST /api/auth/register
      * Registra un nuevo usuario
@@ -51,6 +56,23 @@ public class AuthController {
         }
     }
 
+    /**
+     * POST /api/auth/stream-ticket
+     * Emite un ticket de un solo uso y corta duración para abrir una suscripción SSE (?ticket=)
+     * Cada conexión, incluidas las reconexiones de EventSource, necesita un ticket nuevo
+     */
+    @PostMapping("/stream-ticket")
+    public ResponseEntity<?> issueStreamTicket() {
+        try {
+            var user = authService.getCurrentUser();
+            String ticket = streamTicketStore.issue(user.getUsername());
+            return ResponseEntity.ok(new StreamTicketResponse(ticket, streamTicketStore.getTtlSeconds()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("No autenticado"));
+        }
+    }
+
     /**
      * GET /api/auth/me
      * Obtiene información del usuario actual
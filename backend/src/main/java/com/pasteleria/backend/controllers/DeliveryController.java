@@ -1,17 +1,33 @@
 package com.pasteleria.backend.controllers;
 
+import com.pasteleria.backend.dto.AutoAssignResponse;
+import com.pasteleria.backend.dto.DeliveryMetricsResponse;
+import com.pasteleria.backend.dto.DeliveryZoneRequest;
+import com.pasteleria.backend.dto.DeliveryZoneResponse;
+import com.pasteleria.backend.dto.LocationPingRequest;
 import com.pasteleria.backend.dto.OrderResponse;
 import com.pasteleria.backend.dto.UpdateStatusRequest;
 import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.services.AuthService;
+import com.pasteleria.backend.services.AutoDispatchService;
+import com.pasteleria.backend.services.CourierLocationService;
+import com.pasteleria.backend.services.DeliveryEtaService;
+import com.pasteleria.backend.services.DeliveryMetricsService;
 import com.pasteleria.backend.services.DeliveryService;
+import com.pasteleria.backend.services.DeliveryZoneService;
+import com.pasteleria.backend.services.OrderConflictException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador de delivery
@@ -25,18 +41,38 @@ public class DeliveryController {
     @Autowired
     private DeliveryService deliveryService;
 
+    @Autowired
+    private AutoDispatchService autoDispatchService;
+
+    @Autowired
+    private CourierLocationService courierLocationService;
+
+    @Autowired
+    private DeliveryMetricsService deliveryMetricsService;
+
+    @Autowired
+    private DeliveryEtaService deliveryEtaService;
+
+    @Autowired
+    private DeliveryZoneService deliveryZoneService;
+
+    @Autowired
+    private AuthService authService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     /**
-     * GET /api/delivery/my-orders
-     * Obtiene los pedidos asignados al delivery actual
+     * GET /api/delivery/my-orders?page=&size=
+     * Obtiene los pedidos asignados al delivery actual; sin page devuelve todos (temporal, ver DeliveryService)
      */
     @GetMapping("/my-orders")
     @PreAuthorize("hasRole('DELIVERY')")
-    public ResponseEntity<List<OrderResponse>> getMyAssignedOrders() {
-        List<OrderResponse> orders = deliveryService.getMyAssignedOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderResponse>> getMyAssignedOrders(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        Page<OrderResponse> orders = deliveryService.getMyAssignedOrders(page, size);
+        return pageResponse(orders);
     }
 
     /**
@@ -49,8 +85,26 @@ public class DeliveryController {
             @PathVariable Long id,
             @Valid @RequestBody UpdateStatusRequest request) {
         try {
-            OrderResponse order = deliveryService.updateDeliveryStatus(id, request.getEstado());
+            OrderResponse order = deliveryService.updateDeliveryStatus(id, request.getEstado(), request.getVersion());
             return ResponseEntity.ok(order);
+        } catch (OrderConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/delivery/location
+     * Ping de posición del repartidor mientras tiene pedidos en camino (solo queda en memoria)
+     */
+    @PostMapping("/location")
+    @PreAuthorize("hasRole('DELIVERY')")
+    public ResponseEntity<?> reportLocation(@Valid @RequestBody LocationPingRequest request) {
+        try {
+            courierLocationService.recordPing(authService.getCurrentUser().getId(),
+                    request.getLatitud(), request.getLongitud(), request.getPrecision());
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -99,20 +153,179 @@ public class DeliveryController {
         try {
             OrderResponse order = deliveryService.assignOrderToDelivery(orderId, deliveryId);
             return ResponseEntity.ok(order);
+        } catch (OrderConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
     /**
-     * GET /api/delivery/admin/all-assignments
-     * Obtiene todos los pedidos con sus asignaciones - Solo ADMIN
+     * POST /api/delivery/admin/auto-assign
+     * Asigna en un solo lote los pedidos listos sin repartidor, al repartidor menos cargado - Solo ADMIN
+     */
+    @PostMapping("/admin/auto-assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> autoAssign() {
+        try {
+            AutoAssignResponse result = autoDispatchService.autoAssign();
+            return ResponseEntity.ok(result);
+        } catch (OrderConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/delivery/admin/all-assignments?page=&size=
+     * Obtiene los pedidos con sus asignaciones; sin page devuelve todos (temporal) - Solo ADMIN
      */
     @GetMapping("/admin/all-assignments")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getAllOrdersWithDelivery() {
-        List<OrderResponse> orders = deliveryService.getAllOrdersWithDelivery();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderResponse>> getAllOrdersWithDelivery(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        Page<OrderResponse> orders = deliveryService.getAllOrdersWithDelivery(page, size);
+        return pageResponse(orders);
+    }
+
+    /**
+     * GET /api/delivery/admin/tracking-stats
+     * Contadores del seguimiento GPS - Solo ADMIN
+     */
+    @GetMapping("/admin/tracking-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTrackingStats() {
+        return ResponseEntity.ok(courierLocationService.getStats());
+    }
+
+    /**
+     * GET /api/delivery/admin/metrics?minutos=
+     * Percentiles p50/p90/p99 de los tiempos de entrega en la ventana indicada (por defecto 60 minutos) - Solo ADMIN
+     */
+    @GetMapping("/admin/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDeliveryMetrics(@RequestParam(required = false) Integer minutos) {
+        try {
+            return ResponseEntity.ok(deliveryMetricsService.getMetrics(minutos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/delivery/admin/metrics/couriers?minutos=
+     * Percentiles de cada repartidor con entregas en la ventana, del más lento al más rápido - Solo ADMIN
+     */
+    @GetMapping("/admin/metrics/couriers")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getCourierMetrics(@RequestParam(required = false) Integer minutos) {
+        try {
+            List<DeliveryMetricsResponse> metrics = deliveryMetricsService.getCourierMetrics(minutos);
+            return ResponseEntity.ok(metrics);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/delivery/admin/metrics/couriers/{deliveryId}?minutos=
+     * Percentiles de un repartidor en la ventana indicada - Solo ADMIN
+     */
+    @GetMapping("/admin/metrics/couriers/{deliveryId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getCourierMetrics(@PathVariable Long deliveryId,
+                                               @RequestParam(required = false) Integer minutos) {
+        try {
+            return ResponseEntity.ok(deliveryMetricsService.getCourierMetrics(deliveryId, minutos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/delivery/admin/eta-stats
+     * Estado del modelo de estimación de entrega - Solo ADMIN
+     */
+    @GetMapping("/admin/eta-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getEtaStats() {
+        return ResponseEntity.ok(deliveryEtaService.getStats());
+    }
+
+    /**
+     * GET /api/delivery/admin/zones
+     * Lista las zonas de reparto - Solo ADMIN
+     */
+    @GetMapping("/admin/zones")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<DeliveryZoneResponse>> getZones() {
+        return ResponseEntity.ok(deliveryZoneService.getZones());
+    }
+
+    /**
+     * POST /api/delivery/admin/zones
+     * Crea una zona de reparto - Solo ADMIN
+     */
+    @PostMapping("/admin/zones")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createZone(@Valid @RequestBody DeliveryZoneRequest request) {
+        try {
+            DeliveryZoneResponse zone = deliveryZoneService.createZone(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(zone);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * PUT /api/delivery/admin/zones/{id}
+     * Modifica una zona de reparto - Solo ADMIN
+     */
+    @PutMapping("/admin/zones/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateZone(@PathVariable Long id, @Valid @RequestBody DeliveryZoneRequest request) {
+        try {
+            DeliveryZoneResponse zone = deliveryZoneService.updateZone(id, request);
+            return ResponseEntity.ok(zone);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * DELETE /api/delivery/admin/zones/{id}
+     * Elimina una zona de reparto - Solo ADMIN
+     */
+    @DeleteMapping("/admin/zones/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deleteZone(@PathVariable Long id) {
+        try {
+            deliveryZoneService.deleteZone(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/delivery/admin/zone-stats
+     * Contadores del índice de zonas - Solo ADMIN
+     */
+    @GetMapping("/admin/zone-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getZoneStats() {
+        return ResponseEntity.ok(deliveryZoneService.getStats());
+    }
+
+    /**
+     * El cuerpo sigue siendo la lista de pedidos; el total viaja en la cabecera X-Total-Count
+     */
+    private ResponseEntity<List<OrderResponse>> pageResponse(Page<OrderResponse> page) {
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(page.getTotalElements()))
+                .body(page.getContent());
     }
 
     // Clase interna para respuestas de error
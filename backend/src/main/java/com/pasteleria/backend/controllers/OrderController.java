@@ -1,17 +1,49 @@
 package com.pasteleria.backend.controllers;
 
+import com.pasteleria.backend.dto.BulkStatusRequest;
+import com.pasteleria.backend.dto.BulkStatusResponse;
+import com.pasteleria.backend.dto.CourierPositionResponse;
+import com.pasteleria.backend.dto.CursorPage;
+import com.pasteleria.backend.dto.DeliveryFeeResponse;
+import com.pasteleria.backend.dto.DeliverySlotResponse;
+import com.pasteleria.backend.dto.KitchenBoardResponse;
+import com.pasteleria.backend.dto.OrderIngestionResponse;
 import com.pasteleria.backend.dto.OrderRequest;
 import com.pasteleria.backend.dto.OrderResponse;
 import com.pasteleria.backend.dto.UpdateStatusRequest;
+import com.pasteleria.backend.models.Money;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.services.AuthService;
+import com.pasteleria.backend.services.CourierLocationService;
+import com.pasteleria.backend.services.DeliverySlotService;
+import com.pasteleria.backend.services.DeliveryZoneService;
+import com.pasteleria.backend.services.IdempotencyStore;
+import com.pasteleria.backend.services.KitchenBoard;
+import com.pasteleria.backend.services.OrderArchiveService;
+import com.pasteleria.backend.services.OrderConflictException;
+import com.pasteleria.backend.services.OrderExportService;
+import com.pasteleria.backend.services.OrderIngestionService;
 import com.pasteleria.backend.services.OrderService;
+import com.pasteleria.backend.services.OrderStatusStreamHub;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador de pedidos
@@ -25,30 +57,159 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private OrderStatusStreamHub orderStatusStreamHub;
+
+    @Autowired
+    private KitchenBoard kitchenBoard;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private DeliverySlotService deliverySlotService;
+
+    @Autowired
+    private CourierLocationService courierLocationService;
+
+    @Autowired
+    private DeliveryZoneService deliveryZoneService;
+
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENCY_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     /**
      * POST /api/orders
      * Crea un nuevo pedido - CLIENTE
      */
     @PostMapping
     @PreAuthorize("hasRole('CLIENTE')")
-    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody OrderRequest request,
+            @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
         try {
-            OrderResponse order = orderService.createOrder(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+            if (idempotencyKey == null) {
+                OrderResponse order = orderService.createOrder(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(order);
+            }
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("Idempotency-Key inválida"));
+            }
+
+            // La clave se aplica por usuario; un reintento devuelve el pedido ya creado sin repetir la transacción
+            String scope = String.valueOf(authService.getCurrentUser().getId());
+            IdempotencyStore.Result<OrderResponse> result = idempotencyStore.execute(
+                    scope, idempotencyKey, request, () -> orderService.createOrder(request));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENCY_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                    .body(result.value());
+        } catch (IdempotencyStore.IdempotencyKeyReuseException e) {
+            return ResponseEntity.unprocessableEntity().body(new ErrorResponse(e.getMessage()));
+        } catch (IdempotencyStore.IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * POST /api/orders/async
+     * Encola un pedido para crearlo en segundo plano y devuelve un handle consultable - CLIENTE
+     */
+    @PostMapping("/async")
+    @PreAuthorize("hasRole('CLIENTE')")
+    public ResponseEntity<?> createOrderAsync(@Valid @RequestBody OrderRequest request) {
+        try {
+            OrderIngestionResponse ingestion = orderIngestionService.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/orders/async/" + ingestion.getHandle())
+                    .body(ingestion);
+        } catch (OrderIngestionService.IngestionQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/orders/async/{handle}
+     * Consulta el estado de un pedido encolado - CLIENTE
+     */
+    @GetMapping("/async/{handle}")
+    @PreAuthorize("hasRole('CLIENTE')")
+    public ResponseEntity<?> getAsyncOrderStatus(@PathVariable String handle) {
+        try {
+            return ResponseEntity.ok(orderIngestionService.getStatus(handle));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/orders/my-orders
      * Obtiene los pedidos del usuario actual - CLIENTE
      */
     @GetMapping("/my-orders")
     @PreAuthorize("hasRole('CLIENTE')")
-    public ResponseEntity<List<OrderResponse>> getMyOrders() {
-        List<OrderResponse> orders = orderService.getOrdersByUser();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getMyOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return pageResponse(orderService.getOrdersByUser(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/orders/my-orders/stream
+     * Suscripción por Server-Sent Events a los cambios de estado de los pedidos del usuario actual - CLIENTE
+     */
+    @GetMapping(value = "/my-orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('CLIENTE')")
+    public SseEmitter streamMyOrders() {
+        return orderStatusStreamHub.subscribe(authService.getCurrentUser().getId());
+    }
+
+    /**
+     * GET /api/orders/delivery-slots?fecha=
+     * Franjas de entrega que se pueden elegir, con los lugares libres (de un día o de los próximos días)
+     */
+    @GetMapping("/delivery-slots")
+    public ResponseEntity<List<DeliverySlotResponse>> getDeliverySlots(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(deliverySlotService.getAvailableSlots(fecha));
+    }
+
+    /**
+     * GET /api/orders/delivery-zone?latitud=&longitud=
+     * Zona de reparto y costo de envío de unas coordenadas, para mostrarlos antes de confirmar el pedido
+     */
+    @GetMapping("/delivery-zone")
+    public ResponseEntity<?> getDeliveryZone(@RequestParam double latitud, @RequestParam double longitud) {
+        DeliveryZoneService.Match zona = deliveryZoneService.findZone(latitud, longitud);
+        if (zona == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("La dirección está fuera de la zona de reparto"));
+        }
+        return ResponseEntity.ok(new DeliveryFeeResponse(
+                zona.zonaId(), zona.nombre(), Money.toBigDecimal(zona.costoEnvioCentavos())));
     }
 
     /**
@@ -67,15 +228,126 @@ public class OrderController {
         }
     }
 
+    /**
+     * GET /api/orders/{id}/tracking
+     * Última posición del repartidor de un pedido EN_CAMINO - CLIENTE/ADMIN
+     */
+    @GetMapping("/{id}/tracking")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'ADMIN')")
+    public ResponseEntity<?> getTracking(@PathVariable Long id) {
+        try {
+            CourierPositionResponse position = courierLocationService.getPosition(id, authService.getCurrentUser());
+            return ResponseEntity.ok(position);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/orders/{id}/tracking/stream
+     * Suscripción por Server-Sent Events a la posición del repartidor de un pedido EN_CAMINO - CLIENTE/ADMIN
+     */
+    @GetMapping(value = "/{id}/tracking/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('CLIENTE', 'ADMIN')")
+    public SseEmitter streamTracking(@PathVariable Long id) {
+        try {
+            return courierLocationService.subscribe(id, authService.getCurrentUser());
+        } catch (CourierLocationService.TooManyWatchersException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
     /**
      * GET /api/orders/admin/all
      * Obtiene todos los pedidos - Solo ADMIN
      */
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        List<OrderResponse> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) OrderStatus estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderResponse> page = estado == null
+                    ? orderService.getAllOrders(cursor, size)
+                    : orderService.getOrdersByStatus(estado, cursor, size);
+            return pageResponse(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/orders/admin/idempotency-stats
+     * Obtiene los contadores del almacén de claves de idempotencia - Solo ADMIN
+     */
+    @GetMapping("/admin/idempotency-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyStore.getStats());
+    }
+
+    /**
+     * GET /api/orders/admin/ingestion-stats
+     * Obtiene los contadores de la cola de ingesta asíncrona - Solo ADMIN
+     */
+    @GetMapping("/admin/ingestion-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        return ResponseEntity.ok(orderIngestionService.getStats());
+    }
+
+    /**
+     * GET /api/orders/admin/board
+     * Tablero de cocina: pedidos activos por estado con cantidades y antigüedad, servido desde memoria - Solo ADMIN
+     */
+    @GetMapping("/admin/board")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<KitchenBoardResponse> getKitchenBoard(@RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(kitchenBoard.getBoard(Math.max(0, Math.min(limite, 500))));
+    }
+
+    /**
+     * GET /api/orders/admin/stream-stats
+     * Obtiene los contadores de las suscripciones por Server-Sent Events - Solo ADMIN
+     */
+    @GetMapping("/admin/stream-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStreamStats() {
+        return ResponseEntity.ok(orderStatusStreamHub.getStats());
+    }
+
+    /**
+     * GET /api/orders/admin/export
+     * Exporta pedidos en NDJSON o CSV por streaming, con filtros de fecha y estado - Solo ADMIN
+     */
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) OrderStatus estado) {
+        OrderExportService.Format format;
+        try {
+            format = OrderExportService.Format.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato inválido. Use: ndjson o csv");
+        }
+
+        // Rango [desde, hasta] inclusivo en días; sin límites si no se indican
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : LocalDateTime.of(9999, 12, 31, 0, 0);
+
+        StreamingResponseBody body = out -> orderExportService.export(out, format, inicio, fin, estado);
+        boolean csv = format == OrderExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pedidos." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     /**
@@ -88,13 +360,66 @@ public class OrderController {
             @PathVariable Long id,
             @Valid @RequestBody UpdateStatusRequest request) {
         try {
-            OrderResponse order = orderService.updateOrderStatus(id, request.getEstado());
+            OrderResponse order = orderService.updateOrderStatus(id, request.getEstado(), request.getVersion());
             return ResponseEntity.ok(order);
+        } catch (OrderConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/orders/admin/bulk-status
+     * Cambia el estado de varios pedidos en una sola operación - Solo ADMIN
+     */
+    @PostMapping("/admin/bulk-status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateOrderStatuses(@Valid @RequestBody BulkStatusRequest request) {
+        try {
+            BulkStatusResponse result = orderService.updateOrderStatuses(request.getIds(), request.getEstado());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/orders/admin/archive/run
+     * Archiva en el momento los pedidos finalizados con la antigüedad configurada - Solo ADMIN
+     */
+    @PostMapping("/admin/archive/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runArchive() {
+        try {
+            return ResponseEntity.ok(orderArchiveService.run());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * GET /api/orders/admin/archive-stats
+     * Obtiene los contadores del archivo de pedidos finalizados - Solo ADMIN
+     */
+    @GetMapping("/admin/archive-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        return ResponseEntity.ok(orderArchiveService.getStats());
+    }
+
+    /**
+     * El cuerpo sigue siendo la lista de pedidos; el cursor de la página siguiente
+     * viaja en la cabecera X-Next-Cursor (ausente en la última página)
+     */
+    private ResponseEntity<List<OrderResponse>> pageResponse(CursorPage<OrderResponse> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+
     // Clase interna para respuestas de error
     private static class ErrorResponse {
         private String message;
@@ -1,15 +1,30 @@
 package com.pasteleria.backend.controllers;
 
+import com.pasteleria.backend.dto.DailyStockRequest;
+import com.pasteleria.backend.dto.DailyStockResponse;
+import com.pasteleria.backend.dto.ProductSuggestion;
 import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.services.CatalogSnapshotCache;
+import com.pasteleria.backend.services.DailyStockService;
 import com.pasteleria.backend.services.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Controlador de productos
@@ -23,14 +38,24 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogSnapshotCache snapshotCache;
+
+    @Autowired
+    private DailyStockService dailyStockService;
+
     /**
      * GET /api/products/public/all
      * Obtiene todos los productos disponibles (público)
      */
     @GetMapping("/public/all")
-    public ResponseEntity<List<Product>> getAllAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllAvailableProducts(WebRequest request) {
+        boolean gzip = acceptsGzip(request);
+        String etag = snapshotETag(gzip);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return snapshotResponse(etag, gzip, snapshotCache.getAvailableProducts());
     }
 
     /**
@@ -38,10 +63,14 @@ public class ProductController {
      * Obtiene un producto por ID (público)
      */
     @GetMapping("/public/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest request) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
             Product product = productService.getProductById(id);
-            return ResponseEntity.ok(product);
+            return catalogResponse(etag, List.of(product), product);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ErrorResponse(e.getMessage()));
@@ -122,14 +151,63 @@ public class ProductController {
         }
     }
 
+    /**
+     * PUT /api/products/admin/{id}/stock
+     * Fija cuántas unidades del producto se pueden vender en un día - Solo ADMIN
+     */
+    @PutMapping("/admin/{id}/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setDailyStock(@PathVariable Long id, @Valid @RequestBody DailyStockRequest request) {
+        try {
+            return ResponseEntity.ok(dailyStockService.setCapacity(id, request.getFecha(), request.getCapacidad()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/products/admin/stock?fecha=
+     * Obtiene el stock configurado de un día (hoy por defecto) con lo reservado y disponible - Solo ADMIN
+     */
+    @GetMapping("/admin/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<DailyStockResponse>> getDailyStock(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(dailyStockService.getStock(fecha != null ? fecha : LocalDate.now()));
+    }
+
+    /**
+     * GET /api/products/admin/stock-stats
+     * Obtiene los contadores del stock diario en memoria - Solo ADMIN
+     */
+    @GetMapping("/admin/stock-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDailyStockStats() {
+        return ResponseEntity.ok(dailyStockService.getStats());
+    }
+
+    /**
+     * GET /api/products/admin/cache-stats
+     * Obtiene los contadores de la caché del catálogo - Solo ADMIN
+     */
+    @GetMapping("/admin/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCatalogCacheStats());
+    }
+
     /**
      * GET /api/products/public/category/{categoria}
      * Busca productos por categoría
      */
     @GetMapping("/public/category/{categoria}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String categoria) {
-        List<Product> products = productService.getProductsByCategory(categoria);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getProductsByCategory(@PathVariable String categoria, WebRequest request) {
+        boolean gzip = acceptsGzip(request);
+        String etag = snapshotETag(gzip);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return snapshotResponse(etag, gzip, snapshotCache.getProductsByCategory(categoria));
     }
 
     /**
@@ -137,9 +215,120 @@ public class ProductController {
      * Busca productos por nombre
      */
     @GetMapping("/public/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q) {
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q, WebRequest request) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<Product> products = productService.searchProductsByName(q);
-        return ResponseEntity.ok(products);
+        return catalogResponse(etag, products, products);
+    }
+
+    /**
+     * GET /api/products/public/suggest
+     * Sugerencias de autocompletado por nombre, descripción o categoría
+     */
+    @GetMapping("/public/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit,
+            WebRequest request) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        int limite = Math.max(1, Math.min(limit, 20));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(productService.suggestProducts(q, limite));
+    }
+
+    /**
+     * ETag fuerte derivado de la versión del catálogo.
+     * Se calcula sin tocar el repositorio, así un If-None-Match vigente responde 304 de inmediato
+     */
+    private String catalogETag() {
+        return "\"" + productService.getCatalogTag() + "\"";
+    }
+
+    /**
+     * Cada codificación es una representación distinta, por eso la variante gzip lleva su propio ETag
+     */
+    private String snapshotETag(boolean gzip) {
+        return "\"" + productService.getCatalogTag() + (gzip ? "-gz" : "") + "\"";
+    }
+
+    /**
+     * Interpreta Accept-Encoding con sus valores q: "gzip;q=0" rechaza gzip y "*" lo acepta si no se nombra
+     */
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double wildcardQ = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                wildcardQ = q;
+            }
+        }
+        if (gzipQ != null) {
+            return gzipQ > 0;
+        }
+        return wildcardQ != null && wildcardQ > 0;
+    }
+
+    /**
+     * Escribe los bytes ya codificados del snapshot sin pasar por Jackson
+     */
+    private ResponseEntity<byte[]> snapshotResponse(String etag, boolean gzip, CatalogSnapshotCache.Snapshot snapshot) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag);
+        if (snapshot.lastModified() != null) {
+            builder.lastModified(snapshot.lastModified().atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    /**
+     * Respuesta 200 con ETag, Last-Modified (mayor fechaActualizacion) y revalidación obligatoria
+     */
+    private <T> ResponseEntity<T> catalogResponse(String etag, List<Product> products, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag);
+        LocalDateTime lastModified = products.stream()
+                .map(Product::getFechaActualizacion)
+                .filter(fecha -> fecha != null)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+        if (lastModified != null) {
+            builder.lastModified(lastModified.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        return builder.body(body);
     }
 
     // Clases internas para respuestas
@@ -0,0 +1,45 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de la asignación automática de pedidos a repartidores
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutoAssignResponse {
+    private Integer asignados;
+    private Integer sinAsignar;
+    private List<Asignacion> asignaciones;
+    private List<Carga> carga;
+
+    /**
+     * Pedido asignado y su repartidor
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Asignacion {
+        private Long pedidoId;
+        private Long deliveryId;
+        private String nombreDelivery;
+    }
+
+    /**
+     * Pedidos abiertos de cada repartidor después de la asignación
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Carga {
+        private Long deliveryId;
+        private String nombreDelivery;
+        private Long abiertos;
+        private Integer asignadosAhora;
+    }
+}
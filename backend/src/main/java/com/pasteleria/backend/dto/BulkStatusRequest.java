@@ -0,0 +1,25 @@
+package com.pasteleria.backend.dto;
+
+import com.pasteleria.backend.models.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para cambiar el estado de varios pedidos a la vez
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequest {
+
+    @NotEmpty(message = "Debe indicar al menos un pedido")
+    private List<Long> ids;
+
+    @NotNull(message = "El estado es obligatorio")
+    private OrderStatus estado;
+}
@@ -0,0 +1,33 @@
+package com.pasteleria.backend.dto;
+
+import com.pasteleria.backend.models.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de un cambio de estado masivo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResponse {
+    private OrderStatus estado;
+    private int actualizados;
+    private List<Resultado> resultados;
+
+    /**
+     * Resultado por pedido: ACTUALIZADO, NO_ENCONTRADO o TRANSICION_INVALIDA.
+     * estadoActual es el estado del pedido tras la operación
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resultado {
+        private Long id;
+        private String resultado;
+        private OrderStatus estadoActual;
+    }
+}
@@ -0,0 +1,22 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con la última posición conocida del repartidor de un pedido en camino
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourierPositionResponse {
+    private Long pedidoId;
+    private Long deliveryId;
+    private Double latitud;
+    private Double longitud;
+    private Double precision;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,25 @@
+package com.pasteleria.backend.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para fijar cuántas unidades de un producto se pueden vender en un día
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStockRequest {
+
+    @NotNull(message = "La fecha es obligatoria")
+    private LocalDate fecha;
+
+    @NotNull(message = "La capacidad es obligatoria")
+    @Min(value = 0, message = "La capacidad no puede ser negativa")
+    private Integer capacidad;
+}
@@ -0,0 +1,22 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO con el stock diario de un producto: capacidad, unidades reservadas y disponibles
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStockResponse {
+    private Long productoId;
+    private String nombreProducto;
+    private LocalDate fecha;
+    private Integer capacidad;
+    private Integer reservado;
+    private Integer disponible;
+}
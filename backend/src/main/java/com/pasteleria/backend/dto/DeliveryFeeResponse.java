@@ -0,0 +1,20 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con la zona de reparto y el costo de envío que corresponden a unas coordenadas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryFeeResponse {
+    // null si no hay zonas definidas (el reparto no está restringido)
+    private Long zonaId;
+    private String nombreZona;
+    private BigDecimal costoEnvio;
+}
@@ -0,0 +1,36 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los percentiles de tiempos de entrega en una ventana (general o de un repartidor)
+ * Los tiempos se expresan en segundos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryMetricsResponse {
+    // null en las métricas generales
+    private Long deliveryId;
+    private Integer ventanaMinutos;
+    // Desde la asignación al repartidor hasta la entrega
+    private Percentiles asignacionEntrega;
+    // Desde la creación del pedido hasta la entrega
+    private Percentiles pedidoEntrega;
+
+    /**
+     * Cantidad de entregas y percentiles de la duración
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Percentiles {
+        private Long entregas;
+        private Long p50;
+        private Long p90;
+        private Long p99;
+        private Long max;
+    }
+}
@@ -0,0 +1,21 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de una franja de entrega con su capacidad y los lugares libres
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliverySlotResponse {
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private Integer capacidad;
+    private Integer reservados;
+    private Integer disponibles;
+}
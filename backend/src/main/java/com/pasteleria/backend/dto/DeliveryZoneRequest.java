@@ -0,0 +1,58 @@
+package com.pasteleria.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO para crear o modificar una zona de reparto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryZoneRequest {
+
+    @NotBlank(message = "El nombre es obligatorio")
+    @Size(max = 100, message = "El nombre no puede superar 100 caracteres")
+    private String nombre;
+
+    @NotNull(message = "Los vértices son obligatorios")
+    @Size(min = 3, max = 500, message = "El polígono debe tener entre 3 y 500 vértices")
+    private List<@Valid @NotNull Vertice> vertices;
+
+    @NotNull(message = "El costo de envío es obligatorio")
+    @DecimalMin(value = "0.00", message = "El costo de envío no puede ser negativo")
+    @Digits(integer = 8, fraction = 2, message = "El costo de envío admite hasta 8 enteros y 2 decimales")
+    private BigDecimal costoEnvio;
+
+    // Opcional; por defecto la zona queda activa
+    private Boolean activa;
+
+    /**
+     * Vértice del polígono
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Vertice {
+        @NotNull(message = "La latitud es obligatoria")
+        @DecimalMin(value = "-90.0", message = "Latitud inválida")
+        @DecimalMax(value = "90.0", message = "Latitud inválida")
+        private Double latitud;
+
+        @NotNull(message = "La longitud es obligatoria")
+        @DecimalMin(value = "-180.0", message = "Longitud inválida")
+        @DecimalMax(value = "180.0", message = "Longitud inválida")
+        private Double longitud;
+    }
+}
@@ -0,0 +1,22 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO de respuesta de una zona de reparto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryZoneResponse {
+    private Long id;
+    private String nombre;
+    private List<DeliveryZoneRequest.Vertice> vertices;
+    private BigDecimal costoEnvio;
+    private Boolean activa;
+}
@@ -0,0 +1,45 @@
+package com.pasteleria.backend.dto;
+
+import com.pasteleria.backend.models.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO del tablero de cocina: pedidos activos agrupados por estado, del más antiguo al más nuevo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitchenBoardResponse {
+    private LocalDateTime generadoEn;
+    private int totalActivos;
+    private List<Columna> columnas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Columna {
+        private OrderStatus estado;
+        private int cantidad;
+        // Antigüedad del pedido que lleva más tiempo en este estado
+        private long segundosMaximoEnEstado;
+        private List<Pedido> pedidos;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pedido {
+        private Long id;
+        private Long usuarioId;
+        private BigDecimal total;
+        private LocalDateTime fecha;
+        private LocalDateTime enEstadoDesde;
+        private long segundosEnEstado;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pasteleria.backend.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con la posición que envía periódicamente el teléfono del repartidor
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPingRequest {
+
+    @NotNull(message = "La latitud es obligatoria")
+    @DecimalMin(value = "-90.0", message = "Latitud inválida")
+    @DecimalMax(value = "90.0", message = "Latitud inválida")
+    private Double latitud;
+
+    @NotNull(message = "La longitud es obligatoria")
+    @DecimalMin(value = "-180.0", message = "Longitud inválida")
+    @DecimalMax(value = "180.0", message = "Longitud inválida")
+    private Double longitud;
+
+    // Precisión en metros (opcional)
+    @PositiveOrZero(message = "La precisión no puede ser negativa")
+    private Double precision;
+}
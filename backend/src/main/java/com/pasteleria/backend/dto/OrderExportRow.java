@@ -0,0 +1,28 @@
+package com.pasteleria.backend.dto;
+
+import com.pasteleria.backend.models.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para una fila de la exportación de pedidos (NDJSON / CSV)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRow {
+    private Long id;
+    private LocalDateTime fecha;
+    private OrderStatus estado;
+    private BigDecimal total;
+    private Long usuarioId;
+    private String nombreCliente;
+    private String direccionEntrega;
+    private Long deliveryId;
+    private String nombreDelivery;
+    private LocalDateTime fechaEntrega;
+}
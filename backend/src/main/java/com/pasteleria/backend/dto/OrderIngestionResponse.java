@@ -0,0 +1,19 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado de un pedido enviado a la cola de ingesta asíncrona
+ * estado: EN_COLA, CREADO o RECHAZADO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIngestionResponse {
+    private String handle;
+    private String estado;
+    private Long pedidoId;
+    private String mensaje;
+}
@@ -1,11 +1,14 @@
 package com.pasteleria.backend.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,6 +27,22 @@ public class OrderRequest {
 
     private String notas;
 
+    // Inicio de la franja de entrega elegida (opcional; ver GET /api/orders/delivery-slots)
+    private LocalDateTime franjaInicio;
+
+    // Coordenadas de la dirección (obligatorias si hay zonas de reparto); definen la zona y el costo de envío
+    @DecimalMin(value = "-90.0", message = "Latitud inválida")
+    @DecimalMax(value = "90.0", message = "Latitud inválida")
+    private Double latitud;
+
+    @DecimalMin(value = "-180.0", message = "Longitud inválida")
+    @DecimalMax(value = "180.0", message = "Longitud inválida")
+    private Double longitud;
+
+    public OrderRequest(List<OrderItemRequest> items, String direccionEntrega, String notas) {
+        this(items, direccionEntrega, notas, null, null, null);
+    }
+
     /**
      * DTO interno para items del pedido
      */
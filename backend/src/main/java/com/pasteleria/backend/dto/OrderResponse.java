@@ -24,8 +24,16 @@ public class OrderResponse {
     private BigDecimal total;
     private String direccionEntrega;
     private String notas;
+    private LocalDateTime franjaInicio;
+    private LocalDateTime franjaFin;
+    private Double latitud;
+    private Double longitud;
+    private BigDecimal costoEnvio;
     private List<OrderItemResponse> items;
     private DeliveryInfo deliveryInfo;
+    // Hora estimada de entrega, solo para pedidos POR_ENTREGAR o EN_CAMINO
+    private LocalDateTime fechaEstimadaEntrega;
+    private Long version;
 
     @Data
     @NoArgsConstructor
@@ -0,0 +1,20 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de un producto en el ranking de ventas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRank {
+    private Long productoId;
+    private String nombre;
+    private Long unidades;
+    private BigDecimal ingresos;
+}
@@ -0,0 +1,20 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un punto de la serie de ingresos (inicio del período, pedidos e ingresos)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenuePoint {
+    private LocalDateTime periodo;
+    private Long pedidos;
+    private BigDecimal ingresos;
+}
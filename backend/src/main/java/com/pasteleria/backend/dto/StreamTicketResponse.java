@@ -0,0 +1,16 @@
+package com.pasteleria.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con un ticket de un solo uso para abrir una suscripción SSE (?ticket=)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamTicketResponse {
+    private String ticket;
+    private long expiraEnSegundos;
+}
@@ -16,4 +16,8 @@ public class UpdateStatusRequest {
 
     @NotNull(message = "El estado es obligatorio")
     private OrderStatus estado;
+
+    // Versión del pedido que vio el cliente; si otro cambio la movió la actualización responde 409
+    @NotNull(message = "La versión del pedido es obligatoria")
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.pasteleria.backend.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando se asigna un pedido a un repartidor (manual o automáticamente)
+ */
+public record DeliveryAssignedEvent(
+        Long pedidoId,
+        Long deliveryId,
+        LocalDateTime fechaAsignacion
+) {
+}
@@ -0,0 +1,16 @@
+package com.pasteleria.backend.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando un repartidor marca un pedido como ENTREGADO
+ * Lleva las fechas necesarias para medir los tiempos de entrega sin volver a consultar la base
+ */
+public record DeliveryCompletedEvent(
+        Long pedidoId,
+        Long deliveryId,
+        LocalDateTime fechaPedido,
+        LocalDateTime fechaAsignacion,
+        LocalDateTime fechaEntrega
+) {
+}
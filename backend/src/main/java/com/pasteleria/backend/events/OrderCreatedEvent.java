@@ -0,0 +1,24 @@
+package com.pasteleria.backend.events;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento publicado cuando se crea un pedido (síncrono o por la cola de ingesta)
+ * Los listeners lo reciben después del commit de la transacción que lo guardó
+ */
+public record OrderCreatedEvent(
+        Long pedidoId,
+        Long usuarioId,
+        BigDecimal total,
+        LocalDateTime fecha,
+        List<Item> items
+) {
+
+    /**
+     * Línea del pedido: producto, cantidad y subtotal
+     */
+    public record Item(Long productoId, Integer cantidad, BigDecimal subtotal) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.pasteleria.backend.events;
+
+import com.pasteleria.backend.models.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando cambia el estado de un pedido
+ * Los listeners lo reciben después del commit de la transacción que hizo el cambio
+ */
+public record OrderStatusChangedEvent(
+        Long pedidoId,
+        Long usuarioId,
+        OrderStatus estado,
+        Long version,
+        LocalDateTime fecha
+) {
+}
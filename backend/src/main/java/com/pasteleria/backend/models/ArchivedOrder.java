@@ -0,0 +1,103 @@
+package com.pasteleria.backend.models;
+
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidad ArchivedOrder - Pedido finalizado movido fuera de la tabla viva de pedidos
+ * Conserva el mismo ID que tenía en 'orders' e incluye los datos de su asignación de delivery
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_usuario_fecha", columnList = "id_usuario, fecha, id"),
+        @Index(name = "idx_orders_archive_fecha", columnList = "fecha")
+})
+@NamedEntityGraph(
+        name = ArchivedOrder.GRAPH_DETALLE,
+        attributeNodes = {
+                @NamedAttributeNode("usuario"),
+                @NamedAttributeNode("items"),
+                @NamedAttributeNode("delivery")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+
+    /**
+     * Plan de carga con cliente, items y repartidor en una sola consulta
+     */
+    public static final String GRAPH_DETALLE = "ArchivedOrder.detalle";
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_usuario", nullable = false)
+    private User usuario;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus estado;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "direccion_entrega", columnDefinition = "TEXT")
+    private String direccionEntrega;
+
+    @Column(columnDefinition = "TEXT")
+    private String notas;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "franja_inicio")
+    private LocalDateTime franjaInicio;
+
+    @Column(name = "franja_fin")
+    private LocalDateTime franjaFin;
+
+    private Double latitud;
+
+    private Double longitud;
+
+    @Column(name = "id_zona")
+    private Long zonaId;
+
+    @Column(name = "costo_envio", precision = 10, scale = 2)
+    private BigDecimal costoEnvio;
+
+    // Asignación de delivery (nula si el pedido nunca se asignó)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_delivery")
+    private User delivery;
+
+    @Column(name = "fecha_asignacion")
+    private LocalDateTime fechaAsignacion;
+
+    @Column(name = "fecha_entrega")
+    private LocalDateTime fechaEntrega;
+
+    @Column(name = "fecha_archivo", nullable = false)
+    private LocalDateTime fechaArchivo;
+
+    @OneToMany(mappedBy = "order")
+    @JsonManagedReference
+    private List<ArchivedOrderItem> items = new ArrayList<>();
+}
@@ -0,0 +1,45 @@
+package com.pasteleria.backend.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad CourierLocation - Punto del recorrido de un repartidor
+ * Solo se guarda una muestra reducida de las posiciones recibidas (no cada ping)
+ */
+@Entity
+@Table(name = "courier_location", indexes = {
+        @Index(name = "idx_courier_location_delivery_fecha", columnList = "id_delivery, fecha"),
+        @Index(name = "idx_courier_location_fecha", columnList = "fecha")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourierLocation {
+
+    // Secuencia con asignación por bloques: IDENTITY impide agrupar los INSERT en lotes JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courier_location_seq")
+    @SequenceGenerator(name = "courier_location_seq", sequenceName = "courier_location_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "id_delivery", nullable = false)
+    private Long deliveryId;
+
+    @Column(nullable = false)
+    private Double latitud;
+
+    @Column(nullable = false)
+    private Double longitud;
+
+    // Precisión informada por el teléfono, en metros
+    @Column(name = "precision_metros")
+    private Double precision;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class DeliveryAssignment {
 
+    // Secuencia con asignación por bloques: IDENTITY impide agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_assignment_seq")
+    @SequenceGenerator(name = "delivery_assignment_seq", sequenceName = "delivery_assignment_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,46 @@
+package com.pasteleria.backend.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad DeliveryZone - Zona de reparto definida por un polígono, con su costo de envío
+ * Los pedidos con coordenadas fuera de todas las zonas activas se rechazan
+ */
+@Entity
+@Table(name = "delivery_zone")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryZone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String nombre;
+
+    // Vértices "latitud longitud" separados por ';' (el polígono se cierra solo)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String poligono;
+
+    @Column(name = "costo_envio", nullable = false, precision = 10, scale = 2)
+    private BigDecimal costoEnvio;
+
+    @Column(nullable = false)
+    private Boolean activa = true;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion = LocalDateTime.now();
+
+    @PreUpdate
+    public void preUpdate() {
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+}
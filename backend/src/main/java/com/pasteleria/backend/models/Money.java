@@ -0,0 +1,51 @@
+package com.pasteleria.backend.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Montos en centavos (escala fija de 2 decimales) representados como long
+ * Los cálculos de precios se hacen con long sin crear objetos; la conversión a BigDecimal
+ * (exacta) se hace solo al guardar en la base de datos o al responder en JSON
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Convierte un monto a centavos. Falla si tiene más de dos decimales o no entra en un long
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Monto inválido: " + amount.toPlainString());
+        }
+    }
+
+    /**
+     * Convierte centavos a BigDecimal con escala 2
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Precio unitario por cantidad, con control de desborde
+     */
+    public static long multiply(long cents, int cantidad) {
+        return Math.multiplyExact(cents, cantidad);
+    }
+
+    /**
+     * Suma de dos montos, con control de desborde
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import java.math.BigDecimal;
@@ -15,17 +16,42 @@ import java.util.List;
  * Entidad Order - Representa un pedido realizado por un cliente
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Índices para la paginación por cursor (fecha, id) en cada listado
+        @Index(name = "idx_orders_usuario_fecha", columnList = "id_usuario, fecha, id"),
+        @Index(name = "idx_orders_estado_fecha", columnList = "estado, fecha, id"),
+        @Index(name = "idx_orders_fecha", columnList = "fecha, id"),
+        @Index(name = "idx_orders_franja", columnList = "franja_inicio")
+})
+@NamedEntityGraph(
+        name = Order.GRAPH_DETALLE,
+        attributeNodes = {
+                @NamedAttributeNode("usuario"),
+                @NamedAttributeNode(value = "items", subgraph = "items"),
+                @NamedAttributeNode(value = "deliveryAssignment", subgraph = "deliveryAssignment")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("producto")),
+                @NamedSubgraph(name = "deliveryAssignment", attributeNodes = @NamedAttributeNode("delivery"))
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    /**
+     * Plan de carga con cliente, items, productos y repartidor en una sola consulta
+     */
+    public static final String GRAPH_DETALLE = "Order.detalle";
+
+    // Secuencia con asignación por bloques: IDENTITY impide agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
     private User usuario;
 
@@ -48,6 +74,31 @@ public class Order {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion = LocalDateTime.now();
 
+    // Franja de entrega elegida por el cliente (nula si no eligió una)
+    @Column(name = "franja_inicio")
+    private LocalDateTime franjaInicio;
+
+    @Column(name = "franja_fin")
+    private LocalDateTime franjaFin;
+
+    // Ubicación de entrega (opcional) y zona de reparto que le corresponde
+    private Double latitud;
+
+    private Double longitud;
+
+    @Column(name = "id_zona")
+    private Long zonaId;
+
+    // Costo de envío de la zona; ya está incluido en el total
+    @Column(name = "costo_envio", precision = 10, scale = 2)
+    private BigDecimal costoEnvio;
+
+    // Versión para control de concurrencia optimista; los cambios de estado la incrementan
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version = 0L;
+
     // Relación con items del pedido
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
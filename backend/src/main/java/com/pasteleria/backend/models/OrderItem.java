@@ -18,8 +18,10 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderItem {
 
+    // Secuencia con asignación por bloques: IDENTITY impide agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,13 +43,13 @@ public class OrderItem {
     private BigDecimal subtotal;
 
     /**
-     * Calcula el subtotal antes de persistir
+     * Calcula el subtotal antes de persistir, solo si no vino ya calculado (OrderService lo calcula al armar el pedido)
      */
     @PrePersist
     @PreUpdate
     public void calcularSubtotal() {
-        if (precioUnitario != null && cantidad != null) {
-            this.subtotal = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
+        if (subtotal == null && precioUnitario != null && cantidad != null) {
+            this.subtotal = Money.toBigDecimal(Money.multiply(Money.toCents(precioUnitario), cantidad));
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.pasteleria.backend.models;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum que define los posibles estados de un pedido
  */
@@ -9,5 +12,21 @@ public enum OrderStatus {
     POR_ENTREGAR,       // Listo para ser entregado
     EN_CAMINO,          // El delivery está en camino
     ENTREGADO,          // Pedido entregado exitosamente
-    CANCELADO           // Pedido cancelado
-}
\ No newline at end of file
+    CANCELADO;          // Pedido cancelado
+
+    private static final Set<OrderStatus> ACTIVOS = EnumSet.complementOf(EnumSet.of(ENTREGADO, CANCELADO));
+
+    /**
+     * Un pedido finalizado ya no admite cambios de estado
+     */
+    public boolean isFinal() {
+        return this == ENTREGADO || this == CANCELADO;
+    }
+
+    /**
+     * Estados desde los que se puede pasar a otro estado (todos los no finalizados)
+     */
+    public static Set<OrderStatus> activos() {
+        return EnumSet.copyOf(ACTIVOS);
+    }
+}
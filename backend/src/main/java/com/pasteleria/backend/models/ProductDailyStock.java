@@ -0,0 +1,45 @@
+package com.pasteleria.backend.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ProductDailyStock - Cantidad de unidades de un producto que se pueden vender en un día
+ * Los productos sin fila para el día no tienen límite
+ */
+@Entity
+@Table(name = "product_daily_stock", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_daily_stock", columnNames = {"id_producto", "fecha"})
+}, indexes = {
+        @Index(name = "idx_product_daily_stock_fecha", columnList = "fecha")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailyStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_producto", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private Integer capacidad;
+
+    // Unidades tomadas por pedidos no cancelados; se escribe en diferido desde memoria
+    @Column(nullable = false)
+    private Integer reservado = 0;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion = LocalDateTime.now();
+}
@@ -0,0 +1,45 @@
+package com.pasteleria.backend.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ProductSalesRollup - Unidades e ingresos de un producto por día u hora
+ */
+@Entity
+@Table(name = "product_sales_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_sales_rollup_periodo",
+                columnNames = {"granularidad", "periodo", "id_producto"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_sales_rollup_seq")
+    @SequenceGenerator(name = "product_sales_rollup_seq", sequenceName = "product_sales_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularidad;
+
+    @Column(nullable = false)
+    private LocalDateTime periodo;
+
+    // Solo el ID: el acumulado no necesita cargar el producto
+    @Column(name = "id_producto", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Long unidades = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+}
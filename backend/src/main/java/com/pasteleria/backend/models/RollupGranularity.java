@@ -0,0 +1,19 @@
+package com.pasteleria.backend.models;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enum que define la granularidad de los acumulados de ventas
+ */
+public enum RollupGranularity {
+    DIA,    // Acumulado por día
+    HORA;   // Acumulado por hora
+
+    /**
+     * Inicio del período al que pertenece la fecha indicada
+     */
+    public LocalDateTime periodo(LocalDateTime fecha) {
+        return this == DIA ? fecha.truncatedTo(ChronoUnit.DAYS) : fecha.truncatedTo(ChronoUnit.HOURS);
+    }
+}
@@ -0,0 +1,41 @@
+package com.pasteleria.backend.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad SalesRollup - Acumulado de pedidos e ingresos por día u hora
+ * Los pedidos cancelados se descuentan del período en que se crearon
+ */
+@Entity
+@Table(name = "sales_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_rollup_periodo", columnNames = {"granularidad", "periodo"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_rollup_seq")
+    @SequenceGenerator(name = "sales_rollup_seq", sequenceName = "sales_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularidad;
+
+    @Column(nullable = false)
+    private LocalDateTime periodo;
+
+    @Column(nullable = false)
+    private Long pedidos = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+}
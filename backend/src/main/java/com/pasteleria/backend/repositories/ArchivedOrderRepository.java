@@ -0,0 +1,123 @@
+package com.pasteleria.backend.repositories;
+
+import com.pasteleria.backend.models.ArchivedOrder;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio para la entidad ArchivedOrder
+ * Incluye las sentencias que mueven pedidos finalizados desde las tablas vivas
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /**
+     * Busca un pedido archivado con cliente, items y repartidor cargados en una sola consulta
+     */
+    @EntityGraph(ArchivedOrder.GRAPH_DETALLE)
+    Optional<ArchivedOrder> findWithDetailsById(Long id);
+
+    /**
+     * Busca pedidos archivados por ID con su detalle, en una sola consulta
+     */
+    @EntityGraph(ArchivedOrder.GRAPH_DETALLE)
+    List<ArchivedOrder> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Claves (fecha, id) de los pedidos archivados de un usuario anteriores a la clave indicada
+     */
+    @Query("SELECT o.id AS id, o.fecha AS fecha FROM ArchivedOrder o WHERE o.usuario = :usuario" +
+            " AND o.fecha <= :fecha AND (o.fecha < :fecha OR o.id < :id) ORDER BY o.fecha DESC, o.id DESC")
+    List<OrderRepository.OrderKey> findKeysByUsuarioBefore(User usuario, LocalDateTime fecha, Long id, Pageable limit);
+
+    /**
+     * Fecha del pedido archivado más reciente (nula si el archivo está vacío)
+     */
+    @Query("SELECT MAX(o.fecha) FROM ArchivedOrder o")
+    LocalDateTime findNewestFecha();
+
+    /**
+     * Recorre fecha y total de los pedidos archivados que no están en el estado indicado
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.fecha AS fecha, o.total AS total FROM ArchivedOrder o WHERE o.estado <> :excluido")
+    Stream<OrderRepository.OrderSale> streamSalesExcluding(OrderStatus excluido);
+
+    /**
+     * Recorre las líneas de los pedidos archivados que no están en el estado indicado
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.fecha AS fecha, i.productoId AS productoId, i.cantidad AS cantidad, i.subtotal AS subtotal" +
+            " FROM ArchivedOrderItem i JOIN i.order o WHERE o.estado <> :excluido")
+    Stream<OrderItemRepository.ItemSale> streamItemSalesExcluding(OrderStatus excluido);
+
+    /**
+     * Recorre los pedidos archivados de un rango de fechas (y estado opcional) para exportarlos
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM ArchivedOrder o JOIN FETCH o.usuario LEFT JOIN FETCH o.delivery" +
+            " WHERE o.fecha >= :desde AND o.fecha < :hasta AND (:estado IS NULL OR o.estado = :estado) ORDER BY o.fecha, o.id")
+    Stream<ArchivedOrder> streamForExport(LocalDateTime desde, LocalDateTime hasta, OrderStatus estado);
+
+    /**
+     * Copia los pedidos indicados (con su asignación de delivery) a la tabla de archivo
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO orders_archive (id, id_usuario, fecha, estado, total, direccion_entrega," +
+            " notas, fecha_actualizacion, version, franja_inicio, franja_fin, latitud, longitud, id_zona, costo_envio," +
+            " id_delivery, fecha_asignacion, fecha_entrega, fecha_archivo)" +
+            " SELECT o.id, o.id_usuario, o.fecha, o.estado, o.total, o.direccion_entrega, o.notas, o.fecha_actualizacion," +
+            " o.version, o.franja_inicio, o.franja_fin, o.latitud, o.longitud, o.id_zona, o.costo_envio," +
+            " da.id_delivery, da.fecha_asignacion, da.fecha_entrega, :fechaArchivo" +
+            " FROM orders o LEFT JOIN delivery_assignment da ON da.id_order = o.id WHERE o.id IN (:ids)")
+    int copyOrders(Collection<Long> ids, LocalDateTime fechaArchivo);
+
+    /**
+     * Copia los items de los pedidos indicados a la tabla de archivo, con el nombre actual del producto
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO order_items_archive (id, id_order, id_producto, nombre_producto," +
+            " cantidad, precio_unitario, subtotal)" +
+            " SELECT i.id, i.id_order, i.id_producto, p.nombre, i.cantidad, i.precio_unitario, i.subtotal" +
+            " FROM order_items i LEFT JOIN products p ON p.id = i.id_producto WHERE i.id_order IN (:ids)")
+    int copyItems(Collection<Long> ids);
+
+    /**
+     * Borra de la tabla viva las asignaciones de los pedidos ya archivados
+     */
+    @Modifying
+    @Query("DELETE FROM DeliveryAssignment da WHERE da.order.id IN :ids")
+    int deleteLiveAssignments(Collection<Long> ids);
+
+    /**
+     * Borra de la tabla viva los items de los pedidos ya archivados
+     */
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN :ids")
+    int deleteLiveItems(Collection<Long> ids);
+
+    /**
+     * Borra de la tabla viva los pedidos ya archivados
+     */
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteLiveOrders(Collection<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.pasteleria.backend.repositories;
+
+import com.pasteleria.backend.models.CourierLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad CourierLocation
+ */
+@Repository
+public interface CourierLocationRepository extends JpaRepository<CourierLocation, Long> {
+
+    /**
+     * Recorrido guardado de un repartidor en el rango [desde, hasta), en orden cronológico
+     */
+    List<CourierLocation> findByDeliveryIdAndFechaGreaterThanEqualAndFechaLessThanOrderByFecha(
+            Long deliveryId, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Borra los puntos guardados antes de la fecha indicada (retención del recorrido)
+     */
+    @Modifying
+    @Query("DELETE FROM CourierLocation c WHERE c.fecha < :antes")
+    int deleteByFechaBefore(LocalDateTime antes);
+}
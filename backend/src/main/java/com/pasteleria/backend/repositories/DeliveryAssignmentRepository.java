@@ -2,9 +2,15 @@ package com.pasteleria.backend.repositories;
 
 import com.pasteleria.backend.models.DeliveryAssignment;
 import com.pasteleria.backend.models.Order;
+import com.pasteleria.backend.models.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,4 +28,85 @@ public interface DeliveryAssignmentRepository extends JpaRepository<DeliveryAssi
      * Verifica si un pedido ya tiene asignación
      */
     Boolean existsByOrder(Order order);
+
+    /**
+     * Verifica si un pedido está asignado a un repartidor
+     */
+    boolean existsByOrderIdAndDeliveryId(Long orderId, Long deliveryId);
+
+    /**
+     * Asignaciones por repartidor de los pedidos en los estados indicados (carga abierta de cada uno)
+     */
+    @Query("SELECT da.delivery.id AS deliveryId, COUNT(da) AS abiertos FROM DeliveryAssignment da" +
+            " WHERE da.order.estado IN :estados GROUP BY da.delivery.id")
+    List<CourierLoad> countByDeliveryAndOrderEstadoIn(Collection<OrderStatus> estados);
+
+    /**
+     * Pedidos en el estado indicado con su repartidor y su cliente (para el seguimiento en vivo)
+     */
+    @Query("SELECT da.order.id AS pedidoId, da.delivery.id AS deliveryId, da.order.usuario.id AS usuarioId" +
+            " FROM DeliveryAssignment da WHERE da.order.estado = :estado")
+    List<ActiveDelivery> findActiveDeliveries(OrderStatus estado);
+
+    /**
+     * Pedidos en los estados indicados con su repartidor y su cliente
+     */
+    @Query("SELECT da.order.id AS pedidoId, da.delivery.id AS deliveryId, da.order.usuario.id AS usuarioId" +
+            " FROM DeliveryAssignment da WHERE da.order.estado IN :estados")
+    List<ActiveDelivery> findActiveDeliveriesIn(Collection<OrderStatus> estados);
+
+    /**
+     * Fechas de asignación y entrega de las entregas realizadas desde la fecha indicada
+     */
+    @Query("SELECT da.fechaAsignacion AS fechaAsignacion, da.fechaEntrega AS fechaEntrega FROM DeliveryAssignment da" +
+            " WHERE da.fechaEntrega >= :desde AND da.fechaAsignacion IS NOT NULL")
+    List<DeliveryDuration> findDeliveredSince(LocalDateTime desde);
+
+    /**
+     * Repartidor asignado a un pedido
+     */
+    @Query("SELECT da.delivery.id FROM DeliveryAssignment da WHERE da.order.id = :orderId")
+    Optional<Long> findDeliveryIdByOrderId(Long orderId);
+
+    /**
+     * Fecha en que se asignó el pedido a su repartidor
+     */
+    @Query("SELECT da.fechaAsignacion FROM DeliveryAssignment da WHERE da.order.id = :orderId")
+    Optional<LocalDateTime> findFechaAsignacionByOrderId(Long orderId);
+
+    /**
+     * Registra la fecha de entrega de la asignación de un pedido
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE DeliveryAssignment da SET da.fechaEntrega = :fecha WHERE da.order.id = :orderId")
+    int updateFechaEntrega(Long orderId, LocalDateTime fecha);
+
+    /**
+     * Pedido en camino con su repartidor y su cliente
+     */
+    interface ActiveDelivery {
+        Long getPedidoId();
+
+        Long getDeliveryId();
+
+        Long getUsuarioId();
+    }
+
+    /**
+     * Fechas de asignación y entrega de una entrega realizada
+     */
+    interface DeliveryDuration {
+        LocalDateTime getFechaAsignacion();
+
+        LocalDateTime getFechaEntrega();
+    }
+
+    /**
+     * Cantidad de asignaciones abiertas de un repartidor
+     */
+    interface CourierLoad {
+        Long getDeliveryId();
+
+        Long getAbiertos();
+    }
 }
\ No newline at end of file
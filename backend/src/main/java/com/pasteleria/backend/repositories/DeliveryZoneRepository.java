@@ -0,0 +1,18 @@
+package com.pasteleria.backend.repositories;
+
+import com.pasteleria.backend.models.DeliveryZone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad DeliveryZone
+ */
+@Repository
+public interface DeliveryZoneRepository extends JpaRepository<DeliveryZone, Long> {
+
+    List<DeliveryZone> findByActivaTrueOrderById();
+
+    List<DeliveryZone> findAllByOrderById();
+}
@@ -1,13 +1,80 @@
 package com.pasteleria.backend.repositories;
 
 import com.pasteleria.backend.models.OrderItem;
+import com.pasteleria.backend.models.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repositorio para la entidad OrderItem
  */
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-    // Los métodos básicos son suficientes por ahora
-}
\ No newline at end of file
+
+    /**
+     * Recorre las líneas de los pedidos que no están en el estado indicado, con la fecha de su pedido.
+     * Usado para reconstruir los acumulados de ventas; debe consumirse dentro de una transacción
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.fecha AS fecha, i.producto.id AS productoId, i.cantidad AS cantidad, i.subtotal AS subtotal" +
+            " FROM OrderItem i JOIN i.order o WHERE o.estado <> :excluido")
+    Stream<ItemSale> streamSalesExcluding(OrderStatus excluido);
+
+    /**
+     * Productos, cantidades y día de entrega (o de creación) de las líneas de un pedido, para devolver su stock al cancelarlo
+     */
+    @Query("SELECT i.producto.id AS productoId, i.cantidad AS cantidad, COALESCE(o.franjaInicio, o.fecha) AS fecha" +
+            " FROM OrderItem i JOIN i.order o WHERE o.id = :orderId")
+    List<ItemLine> findLinesByOrderId(Long orderId);
+
+    /**
+     * Unidades de un producto en pedidos para el rango [desde, hasta) que no están en el estado indicado.
+     * Cada pedido cuenta en su día de entrega o, si no eligió franja, en el de creación
+     */
+    @Query("SELECT COALESCE(SUM(i.cantidad), 0) FROM OrderItem i JOIN i.order o WHERE i.producto.id = :productoId" +
+            " AND COALESCE(o.franjaInicio, o.fecha) >= :desde AND COALESCE(o.franjaInicio, o.fecha) < :hasta" +
+            " AND o.estado <> :excluido")
+    long sumCantidad(Long productoId, LocalDateTime desde, LocalDateTime hasta, OrderStatus excluido);
+
+    /**
+     * Igual que sumCantidad, pero solo cuenta los pedidos creados hasta el instante indicado
+     */
+    @Query("SELECT COALESCE(SUM(i.cantidad), 0) FROM OrderItem i JOIN i.order o WHERE i.producto.id = :productoId" +
+            " AND COALESCE(o.franjaInicio, o.fecha) >= :desde AND COALESCE(o.franjaInicio, o.fecha) < :hasta" +
+            " AND o.estado <> :excluido AND o.fecha <= :creadosHasta")
+    long sumCantidadCreatedUntil(Long productoId, LocalDateTime desde, LocalDateTime hasta, OrderStatus excluido,
+                                 LocalDateTime creadosHasta);
+
+    /**
+     * Línea de un pedido con la fecha del pedido
+     */
+    interface ItemLine {
+        Long getProductoId();
+
+        Integer getCantidad();
+
+        LocalDateTime getFecha();
+    }
+
+    /**
+     * Línea vendida tal como la necesitan los acumulados
+     */
+    interface ItemSale {
+        LocalDateTime getFecha();
+
+        Long getProductoId();
+
+        Integer getCantidad();
+
+        BigDecimal getSubtotal();
+    }
+}
@@ -3,11 +3,25 @@ package com.pasteleria.backend.repositories;
 import com.pasteleria.backend.models.Order;
 import com.pasteleria.backend.models.OrderStatus;
 import com.pasteleria.backend.models.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Order
@@ -16,28 +30,205 @@ import java.util.List;
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     /**
-     * Busca pedidos por usuario
+     * Busca un pedido con cliente, items y repartidor cargados en una sola consulta
      */
-    List<Order> findByUsuarioOrderByFechaDesc(User usuario);
+    @EntityGraph(Order.GRAPH_DETALLE)
+    Optional<Order> findWithDetailsById(Long id);
 
     /**
-     * Busca pedidos por estado
+     * Estado actual de un pedido, sin cargar la entidad
      */
-    List<Order> findByEstadoOrderByFechaDesc(OrderStatus estado);
+    @Query("SELECT o.estado FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findEstadoById(Long id);
 
     /**
-     * Busca pedidos por usuario y estado
+     * Pedidos sin repartidor en los estados indicados, primero los de franja o fecha más temprana
      */
-    List<Order> findByUsuarioAndEstadoOrderByFechaDesc(User usuario, OrderStatus estado);
+    @Query("SELECT o.id FROM Order o WHERE o.estado IN :estados" +
+            " AND NOT EXISTS (SELECT 1 FROM DeliveryAssignment da WHERE da.order = o)" +
+            " ORDER BY COALESCE(o.franjaInicio, o.fecha), o.id")
+    List<Long> findUnassignedIds(Collection<OrderStatus> estados, Pageable limit);
 
     /**
-     * Obtiene todos los pedidos ordenados por fecha descendente
+     * Inicio de la franja de entrega de un pedido (nulo si no eligió una)
      */
-    List<Order> findAllByOrderByFechaDesc();
+    @Query("SELECT o.franjaInicio FROM Order o WHERE o.id = :id")
+    LocalDateTime findFranjaInicioById(Long id);
 
     /**
-     * Busca pedidos asignados a un delivery específico
+     * Pedidos por franja de entrega desde la fecha indicada, sin contar los del estado excluido
      */
-    @Query("SELECT o FROM Order o JOIN o.deliveryAssignment da WHERE da.delivery.id = :deliveryId")
-    List<Order> findByDeliveryId(Long deliveryId);
-}
\ No newline at end of file
+    @Query("SELECT o.franjaInicio AS franjaInicio, COUNT(o) AS cantidad FROM Order o" +
+            " WHERE o.franjaInicio >= :desde AND o.estado <> :excluido GROUP BY o.franjaInicio")
+    List<SlotCount> countBySlotFrom(LocalDateTime desde, OrderStatus excluido);
+
+    /**
+     * Cambia el estado solo si el pedido sigue en uno de los estados de origen (y en la versión esperada,
+     * si se indica). Devuelve 0 si otra actualización ganó la carrera
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.estado = :nuevo, o.version = o.version + 1, o.fechaActualizacion = :ahora" +
+            " WHERE o.id = :id AND o.estado IN :origenes AND (:version IS NULL OR o.version = :version)")
+    int updateEstadoIf(Long id, Collection<OrderStatus> origenes, Long version, OrderStatus nuevo, LocalDateTime ahora);
+
+    /**
+     * Igual que updateEstadoIf, pero además exige que el pedido esté asignado al repartidor indicado
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.estado = :nuevo, o.version = o.version + 1, o.fechaActualizacion = :ahora" +
+            " WHERE o.id = :id AND o.estado IN :origenes AND (:version IS NULL OR o.version = :version)" +
+            " AND EXISTS (SELECT 1 FROM DeliveryAssignment da WHERE da.order.id = o.id AND da.delivery.id = :deliveryId)")
+    int updateEstadoIfAssigned(Long id, Long deliveryId, Collection<OrderStatus> origenes, Long version,
+                               OrderStatus nuevo, LocalDateTime ahora);
+
+    /**
+     * Estados de varios pedidos, bloqueando las filas hasta el fin de la transacción.
+     * Se ordena por ID para que dos operaciones masivas tomen los bloqueos en el mismo orden
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.estado AS estado, o.usuario.id AS usuarioId, o.version AS version" +
+            " FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<OrderEstado> lockEstadosByIdIn(Collection<Long> ids);
+
+    /**
+     * Cambia el estado de varios pedidos en una sola sentencia
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.estado = :nuevo, o.version = o.version + 1, o.fechaActualizacion = :ahora" +
+            " WHERE o.id IN :ids AND o.estado IN :origenes")
+    int updateEstadoIn(Collection<Long> ids, Collection<OrderStatus> origenes, OrderStatus nuevo, LocalDateTime ahora);
+
+    /**
+     * Pedidos en los estados indicados con los datos del tablero de cocina, sin cargar entidades
+     */
+    @Query("SELECT o.id AS id, o.usuario.id AS usuarioId, o.estado AS estado, o.total AS total, o.fecha AS fecha," +
+            " o.fechaActualizacion AS fechaActualizacion, o.version AS version FROM Order o WHERE o.estado IN :estados")
+    List<ActiveOrder> findActiveOrders(Collection<OrderStatus> estados);
+
+    /**
+     * Carga varios pedidos con su detalle en una sola consulta
+     */
+    @EntityGraph(Order.GRAPH_DETALLE)
+    List<Order> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Siguiente página por cursor de los pedidos de un usuario: pedidos anteriores a (fecha, id)
+     */
+    @Query("SELECT o.id AS id, o.fecha AS fecha FROM Order o WHERE o.usuario = :usuario" +
+            " AND o.fecha <= :fecha AND (o.fecha < :fecha OR o.id < :id) ORDER BY o.fecha DESC, o.id DESC")
+    List<OrderKey> findKeysByUsuarioBefore(User usuario, LocalDateTime fecha, Long id, Pageable pageable);
+
+    /**
+     * Siguiente página por cursor de los pedidos con un estado
+     */
+    @Query("SELECT o.id AS id, o.fecha AS fecha FROM Order o WHERE o.estado = :estado" +
+            " AND o.fecha <= :fecha AND (o.fecha < :fecha OR o.id < :id) ORDER BY o.fecha DESC, o.id DESC")
+    List<OrderKey> findKeysByEstadoBefore(OrderStatus estado, LocalDateTime fecha, Long id, Pageable pageable);
+
+    /**
+     * Siguiente página por cursor de todos los pedidos
+     */
+    @Query("SELECT o.id AS id, o.fecha AS fecha FROM Order o" +
+            " WHERE o.fecha <= :fecha AND (o.fecha < :fecha OR o.id < :id) ORDER BY o.fecha DESC, o.id DESC")
+    List<OrderKey> findKeysBefore(LocalDateTime fecha, Long id, Pageable pageable);
+
+    /**
+     * Recorre los pedidos de un rango de fechas (y estado opcional) para exportarlos.
+     * Usa un cursor JDBC con fetch size, sin cargar todos los resultados en memoria.
+     * Debe consumirse dentro de una transacción
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.usuario LEFT JOIN FETCH o.deliveryAssignment da LEFT JOIN FETCH da.delivery" +
+            " WHERE o.fecha >= :desde AND o.fecha < :hasta AND (:estado IS NULL OR o.estado = :estado) ORDER BY o.fecha, o.id")
+    Stream<Order> streamForExport(LocalDateTime desde, LocalDateTime hasta, OrderStatus estado);
+
+    /**
+     * IDs de pedidos en los estados indicados creados antes del corte, para archivarlos por lotes
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.estado IN :estados AND o.fecha < :corte ORDER BY o.id")
+    List<Long> findIdsToArchive(Collection<OrderStatus> estados, LocalDateTime corte, Pageable limit);
+
+    /**
+     * Recorre fecha y total de los pedidos que no están en el estado indicado, para reconstruir acumulados.
+     * Debe consumirse dentro de una transacción
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.fecha AS fecha, o.total AS total FROM Order o WHERE o.estado <> :excluido")
+    Stream<OrderSale> streamSalesExcluding(OrderStatus excluido);
+
+    /**
+     * Página de IDs de pedidos asignados a un delivery, del más reciente al más antiguo
+     */
+    @Query(value = "SELECT o.id FROM Order o JOIN o.deliveryAssignment da WHERE da.delivery.id = :deliveryId ORDER BY o.fecha DESC, o.id DESC",
+            countQuery = "SELECT COUNT(da) FROM DeliveryAssignment da WHERE da.delivery.id = :deliveryId")
+    Page<Long> findIdsByDeliveryId(Long deliveryId, Pageable pageable);
+
+    /**
+     * Página de IDs de todos los pedidos, del más reciente al más antiguo
+     */
+    @Query(value = "SELECT o.id FROM Order o ORDER BY o.fecha DESC, o.id DESC",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findAllIds(Pageable pageable);
+
+    /**
+     * Estado actual de un pedido con su dueño y versión, sin el resto de sus columnas
+     */
+    interface OrderEstado {
+        Long getId();
+
+        OrderStatus getEstado();
+
+        Long getUsuarioId();
+
+        Long getVersion();
+    }
+
+    /**
+     * Pedido activo tal como lo muestra el tablero de cocina
+     */
+    interface ActiveOrder {
+        Long getId();
+
+        Long getUsuarioId();
+
+        OrderStatus getEstado();
+
+        BigDecimal getTotal();
+
+        LocalDateTime getFecha();
+
+        LocalDateTime getFechaActualizacion();
+
+        Long getVersion();
+    }
+
+    /**
+     * Cantidad de pedidos reservados en una franja de entrega
+     */
+    interface SlotCount {
+        LocalDateTime getFranjaInicio();
+
+        Long getCantidad();
+    }
+
+    /**
+     * Fecha y total de un pedido, para los acumulados de ventas
+     */
+    interface OrderSale {
+        LocalDateTime getFecha();
+
+        BigDecimal getTotal();
+    }
+
+    /**
+     * Clave de ordenamiento de un pedido (fecha, id) usada por la paginación por cursor
+     */
+    interface OrderKey {
+        Long getId();
+
+        LocalDateTime getFecha();
+    }
+}
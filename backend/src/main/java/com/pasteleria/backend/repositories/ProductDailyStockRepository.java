@@ -0,0 +1,39 @@
+package com.pasteleria.backend.repositories;
+
+import com.pasteleria.backend.models.ProductDailyStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para la entidad ProductDailyStock
+ */
+@Repository
+public interface ProductDailyStockRepository extends JpaRepository<ProductDailyStock, Long> {
+
+    Optional<ProductDailyStock> findByProductoIdAndFecha(Long productoId, LocalDate fecha);
+
+    /**
+     * Stock de un día, ordenado por producto
+     */
+    List<ProductDailyStock> findByFechaOrderByProductoId(LocalDate fecha);
+
+    /**
+     * Stock de hoy en adelante (se carga en memoria al iniciar)
+     */
+    List<ProductDailyStock> findByFechaGreaterThanEqual(LocalDate fecha);
+
+    /**
+     * Escribe las unidades reservadas que lleva la memoria
+     */
+    @Modifying
+    @Query("UPDATE ProductDailyStock s SET s.reservado = :reservado, s.fechaActualizacion = :ahora" +
+            " WHERE s.productoId = :productoId AND s.fecha = :fecha")
+    int updateReservado(Long productoId, LocalDate fecha, int reservado, LocalDateTime ahora);
+}
@@ -0,0 +1,57 @@
+package com.pasteleria.backend.repositories;
+
+import com.pasteleria.backend.models.ProductSalesRollup;
+import com.pasteleria.backend.models.RollupGranularity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad ProductSalesRollup
+ */
+@Repository
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, Long> {
+
+    /**
+     * Acumulados por producto de los períodos indicados
+     */
+    List<ProductSalesRollup> findByGranularidadAndPeriodoIn(RollupGranularity granularidad,
+                                                           Collection<LocalDateTime> periodos);
+
+    /**
+     * Productos más vendidos en el rango [desde, hasta), sumando los acumulados diarios
+     */
+    @Query("SELECT r.productoId AS productoId, p.nombre AS nombre, SUM(r.unidades) AS unidades, SUM(r.ingresos) AS ingresos" +
+            " FROM ProductSalesRollup r LEFT JOIN Product p ON p.id = r.productoId" +
+            " WHERE r.granularidad = :granularidad AND r.periodo >= :desde AND r.periodo < :hasta" +
+            " GROUP BY r.productoId, p.nombre ORDER BY SUM(r.unidades) DESC, r.productoId")
+    List<ProductTotal> findTopProducts(RollupGranularity granularidad, LocalDateTime desde, LocalDateTime hasta,
+                                       Pageable limit);
+
+    /**
+     * Elimina todos los acumulados por producto (antes de reconstruirlos)
+     */
+    @Modifying
+    @Query("DELETE FROM ProductSalesRollup")
+    int deleteAllRollups();
+
+    /**
+     * Total vendido de un producto en un rango
+     */
+    interface ProductTotal {
+        Long getProductoId();
+
+        String getNombre();
+
+        Long getUnidades();
+
+        BigDecimal getIngresos();
+    }
+}
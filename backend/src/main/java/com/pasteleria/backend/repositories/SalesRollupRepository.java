@@ -0,0 +1,37 @@
+package com.pasteleria.backend.repositories;
+
+import com.pasteleria.backend.models.RollupGranularity;
+import com.pasteleria.backend.models.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad SalesRollup
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    /**
+     * Acumulados de los períodos indicados
+     */
+    List<SalesRollup> findByGranularidadAndPeriodoIn(RollupGranularity granularidad, Collection<LocalDateTime> periodos);
+
+    /**
+     * Serie de acumulados en el rango [desde, hasta), ordenada por período
+     */
+    List<SalesRollup> findByGranularidadAndPeriodoGreaterThanEqualAndPeriodoLessThanOrderByPeriodo(
+            RollupGranularity granularidad, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Elimina todos los acumulados (antes de reconstruirlos)
+     */
+    @Modifying
+    @Query("DELETE FROM SalesRollup")
+    int deleteAllRollups();
+}
@@ -33,4 +33,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Busca usuarios activos por rol
      */
     List<User> findByRolAndActivoTrue(Role rol);
+
+    /**
+     * Cuenta los usuarios activos de un rol
+     */
+    long countByRolAndActivoTrue(Role rol);
 }
\ No newline at end of file
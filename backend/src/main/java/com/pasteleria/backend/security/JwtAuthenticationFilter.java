@@ -32,6 +32,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private StreamTicketStore streamTicketStore;
+
    @Override
 protected void doFilterInternal(HttpServletRequest request,
                                 HttpServletResponse response,
@@ -51,10 +54,16 @@ protected void doFilterInternal(HttpServletRequest request,
         // Extraer el token JWT del header Authorization
         String jwt = getJwtFromRequest(request);
 
-        // Validar y autenticar
+        String username = null;
         if (StringUtils.hasText(jwt) && jwtProvider.validateToken(jwt)) {
-            String username = jwtProvider.getUsernameFromToken(jwt);
+            username = jwtProvider.getUsernameFromToken(jwt);
+        } else if (path.endsWith("/stream")) {
+            // EventSource no envía cabeceras: las suscripciones SSE se abren con un ticket de un solo uso
+            username = streamTicketStore.consume(request.getParameter("ticket"));
+        }
 
+        // Validar y autenticar
+        if (username != null) {
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
@@ -16,6 +16,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
@@ -77,6 +78,9 @@ public class SecurityConfig {
 
             // Configurar autorización de peticiones
             .authorizeHttpRequests(auth -> auth
+                    // El despacho asíncrono (respuestas por streaming) ya fue autorizado en la petición original
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                     // Rutas completamente públicas
                     .requestMatchers("/", "/api", "/error", "/health").permitAll()
                     .requestMatchers("/h2-console/**").permitAll()
@@ -89,6 +93,7 @@ public class SecurityConfig {
 
                     // Rutas protegidas por rol
                     .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                    .requestMatchers("/api/analytics/**").hasRole("ADMIN")
                     .requestMatchers("/api/delivery/**").hasRole("DELIVERY")
                     .requestMatchers("/api/orders/**").hasAnyRole("CLIENTE", "ADMIN")
 
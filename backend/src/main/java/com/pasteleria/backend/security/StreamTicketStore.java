@@ -0,0 +1,68 @@
+package com.pasteleria.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tickets de un solo uso y corta duración para abrir suscripciones SSE
+ * EventSource del navegador no permite enviar la cabecera Authorization; en vez de poner el JWT en la URL
+ * (y con ello en logs de acceso, proxies e historial) el cliente canjea un ticket que solo sirve una vez
+ */
+@Component
+public class StreamTicketStore {
+
+    private static final int TICKET_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    @Value("${jwt.stream-ticket.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    /**
+     * Emite un ticket para el usuario indicado
+     */
+    public String issue(String username) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(username, System.currentTimeMillis() + ttlSeconds * 1000));
+        return ticket;
+    }
+
+    /**
+     * Canjea un ticket: devuelve el usuario si es válido y no expiró, o null. El ticket deja de servir
+     */
+    public String consume(String ticket) {
+        if (ticket == null || ticket.isEmpty()) {
+            return null;
+        }
+        Ticket found = tickets.remove(ticket);
+        if (found == null || found.expiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        return found.username();
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Descarta los tickets emitidos que nunca se canjearon
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(ticket -> ticket.expiresAt() < now);
+    }
+
+    private record Ticket(String username, long expiresAt) {
+    }
+}
@@ -119,6 +119,12 @@ public AuthResponse register(RegisterRequest request) {
      */
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // El filtro JWT ya cargó el usuario en esta petición; se reutiliza sin otra consulta
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+
         String email = authentication.getName();
         
         return userRepository.findByEmail(email)
@@ -0,0 +1,188 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.AutoAssignResponse;
+import com.pasteleria.backend.events.DeliveryAssignedEvent;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.DeliveryAssignment;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Role;
+import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.repositories.DeliveryAssignmentRepository;
+import com.pasteleria.backend.repositories.OrderRepository;
+import com.pasteleria.backend.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asignación automática de pedidos a repartidores
+ * Reparte en un solo lote los pedidos listos sin repartidor, siempre al repartidor con menos pedidos
+ * abiertos (cola de prioridad en memoria), y escribe todas las asignaciones en una transacción.
+ * La restricción única de id_order garantiza un solo repartidor por pedido sin consultarlo antes
+ */
+@Service
+public class AutoDispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoDispatchService.class);
+
+    // Pedidos que se pueden asignar y pedidos que cuentan como carga abierta de un repartidor
+    private static final Set<OrderStatus> ESTADOS_ASIGNABLES = EnumSet.of(OrderStatus.EN_PREPARACION, OrderStatus.POR_ENTREGAR);
+    private static final Set<OrderStatus> ESTADOS_ABIERTOS = EnumSet.of(OrderStatus.POR_ENTREGAR, OrderStatus.EN_CAMINO);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DeliveryAssignmentRepository deliveryAssignmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${delivery.auto-assign.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${delivery.auto-assign.max-open-per-courier:10}")
+    private int maxOpenPerCourier;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Asigna los pedidos listos sin repartidor. Si otra asignación gana la carrera por algún pedido,
+     * el lote completo se revierte y se reintenta una vez sin ese pedido
+     */
+    public AutoAssignResponse autoAssign() {
+        try {
+            return transactionTemplate.execute(status -> assignBatch());
+        } catch (DataIntegrityViolationException e) {
+            log.info("Asignación automática en conflicto con otra asignación, se reintenta: {}", e.getMessage());
+            try {
+                return transactionTemplate.execute(status -> assignBatch());
+            } catch (DataIntegrityViolationException again) {
+                throw new OrderConflictException("Otros pedidos se asignaron mientras tanto, vuelve a intentarlo");
+            }
+        }
+    }
+
+    private AutoAssignResponse assignBatch() {
+        List<User> repartidores = userRepository.findByRolAndActivoTrue(Role.DELIVERY);
+        if (repartidores.isEmpty()) {
+            throw new RuntimeException("No hay repartidores activos");
+        }
+        List<Long> candidatos = orderRepository.findUnassignedIds(ESTADOS_ASIGNABLES, PageRequest.of(0, maxBatch));
+        if (candidatos.isEmpty()) {
+            return new AutoAssignResponse(0, 0, List.of(), List.of());
+        }
+
+        // Índice de carga: el repartidor con menos pedidos abiertos queda primero (a igual carga, el de menor ID)
+        Map<Long, Long> abiertos = deliveryAssignmentRepository.countByDeliveryAndOrderEstadoIn(ESTADOS_ABIERTOS).stream()
+                .collect(Collectors.toMap(DeliveryAssignmentRepository.CourierLoad::getDeliveryId,
+                        DeliveryAssignmentRepository.CourierLoad::getAbiertos));
+        List<CourierLoad> cargas = repartidores.stream()
+                .map(delivery -> new CourierLoad(delivery, abiertos.getOrDefault(delivery.getId(), 0L)))
+                .toList();
+        PriorityQueue<CourierLoad> cola = new PriorityQueue<>(
+                Comparator.comparingLong(CourierLoad::getAbiertos).thenComparing(c -> c.delivery.getId()));
+        cola.addAll(cargas);
+
+        // Bloquea los candidatos y descarta los que cambiaron de estado desde la consulta
+        Map<Long, OrderRepository.OrderEstado> bloqueados = orderRepository.lockEstadosByIdIn(candidatos).stream()
+                .collect(Collectors.toMap(OrderRepository.OrderEstado::getId, Function.identity()));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<DeliveryAssignment> nuevas = new ArrayList<>();
+        List<AutoAssignResponse.Asignacion> asignaciones = new ArrayList<>();
+        for (Long orderId : candidatos) {
+            OrderRepository.OrderEstado estado = bloqueados.get(orderId);
+            if (estado == null || !ESTADOS_ASIGNABLES.contains(estado.getEstado())) {
+                continue;
+            }
+            CourierLoad carga = cola.poll();
+            if (carga.abiertos >= maxOpenPerCourier) {
+                // Hasta el menos cargado está completo
+                cola.offer(carga);
+                break;
+            }
+            DeliveryAssignment assignment = new DeliveryAssignment();
+            assignment.setOrder(orderRepository.getReferenceById(orderId));
+            assignment.setDelivery(carga.delivery);
+            assignment.setFechaAsignacion(ahora);
+            nuevas.add(assignment);
+            asignaciones.add(new AutoAssignResponse.Asignacion(
+                    orderId, carga.delivery.getId(), carga.delivery.getNombre()));
+            carga.abiertos++;
+            carga.asignadosAhora++;
+            cola.offer(carga);
+        }
+
+        if (!nuevas.isEmpty()) {
+            deliveryAssignmentRepository.saveAll(nuevas);
+            // Los que ya estaban POR_ENTREGAR solo reciben repartidor: ni cambian de versión ni emiten cambio de estado
+            List<Long> ids = asignaciones.stream()
+                    .map(AutoAssignResponse.Asignacion::getPedidoId)
+                    .filter(id -> bloqueados.get(id).getEstado() != OrderStatus.POR_ENTREGAR)
+                    .toList();
+            if (!ids.isEmpty()) {
+                orderRepository.updateEstadoIn(ids, EnumSet.of(OrderStatus.EN_PREPARACION), OrderStatus.POR_ENTREGAR, ahora);
+            }
+            for (Long id : ids) {
+                OrderRepository.OrderEstado previo = bloqueados.get(id);
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                        id, previo.getUsuarioId(), OrderStatus.POR_ENTREGAR, previo.getVersion() + 1, ahora));
+            }
+            for (AutoAssignResponse.Asignacion asignacion : asignaciones) {
+                eventPublisher.publishEvent(new DeliveryAssignedEvent(
+                        asignacion.getPedidoId(), asignacion.getDeliveryId(), ahora));
+            }
+        }
+
+        List<AutoAssignResponse.Carga> resumen = cargas.stream()
+                .map(c -> new AutoAssignResponse.Carga(c.delivery.getId(), c.delivery.getNombre(), c.abiertos, c.asignadosAhora))
+                .collect(Collectors.toList());
+        return new AutoAssignResponse(asignaciones.size(), candidatos.size() - asignaciones.size(), asignaciones, resumen);
+    }
+
+    private static final class CourierLoad {
+        private final User delivery;
+        private long abiertos;
+        private int asignadosAhora;
+
+        private CourierLoad(User delivery, long abiertos) {
+            this.delivery = delivery;
+            this.abiertos = abiertos;
+        }
+
+        private long getAbiertos() {
+            return abiertos;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.pasteleria.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasteleria.backend.models.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas del catálogo público ya serializadas a JSON (y comprimidas con gzip)
+ * Cada vista se codifica una sola vez por versión del catálogo y luego se sirve como bytes
+ */
+@Component
+public class CatalogSnapshotCache {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.cache.max-entries:500}")
+    private int maxEntries;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Vista codificada de todos los productos disponibles
+     */
+    public Snapshot getAvailableProducts() {
+        return snapshot(ProductCatalogCache.KEY_ALL, productService::getAvailableProducts);
+    }
+
+    /**
+     * Vista codificada de los productos disponibles de una categoría
+     */
+    public Snapshot getProductsByCategory(String categoria) {
+        return snapshot(ProductCatalogCache.categoryKey(categoria),
+                () -> productService.getProductsByCategory(categoria));
+    }
+
+    private Snapshot snapshot(String key, Supplier<List<Product>> loader) {
+        long version = productService.getCatalogVersion();
+        Snapshot current = snapshots.get(key);
+        if (current != null && current.version() == version) {
+            return current;
+        }
+
+        Snapshot encoded = encode(version, loader.get());
+        if (snapshots.size() >= maxEntries && !snapshots.containsKey(key)) {
+            evictOne(version);
+        }
+        // Solo se reemplaza si nadie guardó una versión más nueva mientras se codificaba
+        snapshots.merge(key, encoded, (old, nuevo) -> nuevo.version() >= old.version() ? nuevo : old);
+        return encoded;
+    }
+
+    /**
+     * Libera un lugar descartando una vista de una versión anterior o, si todas están al día, cualquiera
+     */
+    private void evictOne(long version) {
+        String victim = null;
+        for (Map.Entry<String, Snapshot> entry : snapshots.entrySet()) {
+            victim = entry.getKey();
+            if (entry.getValue().version() != version) {
+                break;
+            }
+        }
+        if (victim != null) {
+            snapshots.remove(victim);
+        }
+    }
+
+    private Snapshot encode(long version, List<Product> products) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            LocalDateTime lastModified = products.stream()
+                    .map(Product::getFechaActualizacion)
+                    .filter(fecha -> fecha != null)
+                    .max(LocalDateTime::compareTo)
+                    .orElse(null);
+            return new Snapshot(version, json, gzip(json), lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Vista codificada: JSON plano, variante gzip y la fecha de modificación más reciente
+     */
+    public record Snapshot(long version, byte[] json, byte[] gzip, LocalDateTime lastModified) {
+    }
+}
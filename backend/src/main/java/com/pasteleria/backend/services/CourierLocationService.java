@@ -0,0 +1,449 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.CourierPositionResponse;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.CourierLocation;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Role;
+import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.repositories.CourierLocationRepository;
+import com.pasteleria.backend.repositories.DeliveryAssignmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Seguimiento en vivo de los repartidores
+ * Cada ping se guarda solo en memoria: un buffer circular por repartidor y un mapa con la última
+ * posición. Periódicamente se persiste una muestra reducida del recorrido (por tiempo o distancia),
+ * así la ingesta no hace una escritura en la base por ping. Los clientes de un pedido EN_CAMINO
+ * pueden leer la posición o suscribirse por Server-Sent Events
+ */
+@Service
+public class CourierLocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CourierLocationService.class);
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    // Sin envíos durante este tiempo se manda un latido para detectar clientes desconectados
+    private static final long HEARTBEAT_MILLIS = 25_000;
+
+    @Autowired
+    private DeliveryAssignmentRepository deliveryAssignmentRepository;
+
+    @Autowired
+    private CourierLocationRepository courierLocationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${delivery.tracking.buffer-size:128}")
+    private int bufferSize;
+
+    @Value("${delivery.tracking.min-interval-seconds:30}")
+    private int minIntervalSeconds;
+
+    @Value("${delivery.tracking.min-distance-meters:100}")
+    private double minDistanceMeters;
+
+    @Value("${delivery.tracking.max-watchers-per-order:5}")
+    private int maxWatchersPerOrder;
+
+    @Value("${delivery.tracking.max-watchers:2000}")
+    private int maxWatchers;
+
+    @Value("${delivery.tracking.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${orders.stream.timeout-minutes:30}")
+    private long streamTimeoutMinutes;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Última posición por repartidor: se reemplaza entera en cada ping y se lee sin bloqueos
+    private final Map<Long, Position> latest = new ConcurrentHashMap<>();
+
+    // Recorrido reciente por repartidor
+    private final Map<Long, Track> tracks = new ConcurrentHashMap<>();
+
+    // Pedidos EN_CAMINO con su repartidor y cliente, y pedidos en camino de cada repartidor
+    private final Map<Long, ActiveOrder> enCamino = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> pedidosPorRepartidor = new ConcurrentHashMap<>();
+
+    // Suscripciones SSE por pedido, con su total para aplicar los límites
+    private final Map<Long, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+    private final AtomicInteger watcherCount = new AtomicInteger();
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong pings = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong pushed = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Carga los pedidos que ya estaban en camino al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (DeliveryAssignmentRepository.ActiveDelivery active :
+                deliveryAssignmentRepository.findActiveDeliveries(OrderStatus.EN_CAMINO)) {
+            startTracking(active.getPedidoId(), active.getDeliveryId(), active.getUsuarioId());
+        }
+    }
+
+    /**
+     * Registra un ping del repartidor. Solo se aceptan mientras tenga algún pedido en camino
+     */
+    public void recordPing(Long deliveryId, double latitud, double longitud, Double precision) {
+        Set<Long> activos = pedidosPorRepartidor.get(deliveryId);
+        if (activos == null || activos.isEmpty()) {
+            rejected.incrementAndGet();
+            throw new RuntimeException("No tienes pedidos en camino");
+        }
+        Track track = tracks.computeIfAbsent(deliveryId, id -> new Track(bufferSize));
+        long seq = track.next.getAndIncrement();
+        Position position = new Position(seq, latitud, longitud, precision, LocalDateTime.now());
+        track.buffer.set((int) (seq % track.buffer.length()), position);
+        latest.put(deliveryId, position);
+        pings.incrementAndGet();
+    }
+
+    /**
+     * Última posición del repartidor de un pedido en camino (solo su cliente o un ADMIN)
+     */
+    public CourierPositionResponse getPosition(Long orderId, User user) {
+        ActiveOrder active = activeOrderFor(orderId, user);
+        Position position = positionFor(active);
+        if (position == null) {
+            throw new RuntimeException("El repartidor todavía no informó su posición");
+        }
+        return toResponse(active, position);
+    }
+
+    /**
+     * Suscripción por Server-Sent Events a la posición del repartidor de un pedido en camino.
+     * Se limita la cantidad de conexiones por pedido y en total
+     */
+    public SseEmitter subscribe(Long orderId, User user) {
+        activeOrderFor(orderId, user);
+        if (watcherCount.incrementAndGet() > maxWatchers) {
+            watcherCount.decrementAndGet();
+            throw new TooManyWatchersException("Hay demasiadas suscripciones de seguimiento abiertas");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(streamTimeoutMinutes));
+        Watcher watcher = new Watcher(orderId, emitter);
+        boolean[] added = {false};
+        watchers.compute(orderId, (id, set) -> {
+            Set<Watcher> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (current.size() < maxWatchersPerOrder) {
+                added[0] = current.add(watcher);
+            }
+            return current.isEmpty() ? null : current;
+        });
+        if (!added[0]) {
+            watcherCount.decrementAndGet();
+            throw new TooManyWatchersException("Este pedido ya tiene el máximo de suscripciones de seguimiento");
+        }
+        emitter.onCompletion(() -> removeWatcher(watcher));
+        emitter.onTimeout(() -> removeWatcher(watcher));
+        emitter.onError(e -> removeWatcher(watcher));
+        watcher.send(SseEmitter.event().comment("conectado"), null);
+        return emitter;
+    }
+
+    /**
+     * Envía a los suscriptores la última posición, si cambió desde el último envío.
+     * Los pings se agrupan: un cliente recibe como máximo una posición por intervalo
+     */
+    @Scheduled(fixedRateString = "${delivery.tracking.push-millis:2000}")
+    public void push() {
+        long ahora = System.currentTimeMillis();
+        watchers.forEach((orderId, set) -> {
+            ActiveOrder active = enCamino.get(orderId);
+            Position position = active != null ? positionFor(active) : null;
+            for (Watcher watcher : set) {
+                if (position != null && position != watcher.lastSent) {
+                    watcher.send(SseEmitter.event().name("posicion").id(String.valueOf(position.seq()))
+                            .data(toResponse(active, position)), position);
+                } else if (ahora - watcher.lastSentAt > HEARTBEAT_MILLIS) {
+                    watcher.send(SseEmitter.event().comment("ping"), watcher.lastSent);
+                }
+            }
+        });
+    }
+
+    /**
+     * Mantiene el índice de pedidos en camino y cierra las suscripciones de los pedidos que terminan
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.estado() == OrderStatus.EN_CAMINO) {
+            deliveryAssignmentRepository.findDeliveryIdByOrderId(event.pedidoId())
+                    .ifPresent(deliveryId -> startTracking(event.pedidoId(), deliveryId, event.usuarioId()));
+        } else {
+            ActiveOrder active = enCamino.remove(event.pedidoId());
+            if (active != null) {
+                pedidosPorRepartidor.computeIfPresent(active.deliveryId(), (id, set) -> {
+                    set.remove(event.pedidoId());
+                    if (set.isEmpty()) {
+                        // Sin pedidos en camino la última posición deja de servir: no se muestra en la próxima entrega
+                        latest.remove(id);
+                        return null;
+                    }
+                    return set;
+                });
+            }
+            Set<Watcher> set = watchers.remove(event.pedidoId());
+            if (set != null) {
+                set.forEach(watcher -> {
+                    if (watcher.registered.compareAndSet(true, false)) {
+                        watcherCount.decrementAndGet();
+                    }
+                    watcher.emitter.complete();
+                });
+            }
+        }
+    }
+
+    /**
+     * Persiste una muestra reducida de los pings nuevos: se guarda un punto si pasó el intervalo mínimo
+     * o si el repartidor se movió la distancia mínima desde el último punto guardado
+     */
+    @Scheduled(fixedDelayString = "${delivery.tracking.flush-seconds:15}", timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        List<CourierLocation> muestras = new ArrayList<>();
+        tracks.forEach((deliveryId, track) -> {
+            long hasta = track.next.get();
+            long desde = Math.max(track.flushed, hasta - track.buffer.length());
+            for (long seq = desde; seq < hasta; seq++) {
+                Position position = track.buffer.get((int) (seq % track.buffer.length()));
+                // Un ping en curso (o ya pisado por la vuelta del buffer) no tiene la secuencia esperada
+                if (position == null || position.seq() != seq) {
+                    continue;
+                }
+                if (shouldPersist(track.lastPersisted, position)) {
+                    muestras.add(new CourierLocation(null, deliveryId, position.latitud(), position.longitud(),
+                            position.precision(), position.fecha()));
+                    track.lastPersisted = position;
+                }
+            }
+            track.flushed = hasta;
+            if (!pedidosPorRepartidor.containsKey(deliveryId) && hasta == track.next.get()) {
+                tracks.remove(deliveryId, track);
+            }
+        });
+        if (muestras.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> courierLocationRepository.saveAll(muestras));
+            persisted.addAndGet(muestras.size());
+        } catch (RuntimeException e) {
+            // El recorrido es informativo: se pierde esta muestra en lugar de acumular memoria
+            log.warn("No se pudo guardar el recorrido de {} puntos: {}", muestras.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Borra los puntos del recorrido más antiguos que la retención configurada (por defecto, a las 4:00)
+     */
+    @Scheduled(cron = "${delivery.tracking.retention-cron:0 0 4 * * *}")
+    public void purgeHistory() {
+        LocalDateTime antes = LocalDateTime.now().minusDays(retentionDays);
+        try {
+            Integer borrados = transactionTemplate.execute(status -> courierLocationRepository.deleteByFechaBefore(antes));
+            if (borrados != null && borrados > 0) {
+                purged.addAndGet(borrados);
+                log.info("Recorridos: {} puntos anteriores a {} borrados", borrados, antes);
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo depurar el recorrido guardado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Contadores del seguimiento para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ordersEnCamino", enCamino.size());
+        stats.put("couriersTracked", tracks.size());
+        stats.put("watchers", watcherCount.get());
+        stats.put("pings", pings.get());
+        stats.put("rejected", rejected.get());
+        stats.put("persisted", persisted.get());
+        stats.put("pushed", pushed.get());
+        stats.put("purged", purged.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchers.values().forEach(set -> set.forEach(watcher -> watcher.emitter.complete()));
+        sender.shutdownNow();
+    }
+
+    private void startTracking(Long orderId, Long deliveryId, Long usuarioId) {
+        enCamino.put(orderId, new ActiveOrder(orderId, deliveryId, usuarioId, LocalDateTime.now()));
+        pedidosPorRepartidor.computeIfAbsent(deliveryId, id -> ConcurrentHashMap.newKeySet()).add(orderId);
+    }
+
+    private ActiveOrder activeOrderFor(Long orderId, User user) {
+        ActiveOrder active = enCamino.get(orderId);
+        if (active == null) {
+            throw new RuntimeException("El pedido no está en camino");
+        }
+        if (user.getRol() != Role.ADMIN && !active.usuarioId().equals(user.getId())) {
+            throw new RuntimeException("No tienes permiso para ver este pedido");
+        }
+        return active;
+    }
+
+    /**
+     * Última posición del repartidor, solo si es posterior a la salida del pedido: un ping que llegó
+     * justo cuando terminaba la entrega anterior no se muestra como posición de esta
+     */
+    private Position positionFor(ActiveOrder active) {
+        Position position = latest.get(active.deliveryId());
+        if (position == null || position.fecha().isBefore(active.desde())) {
+            return null;
+        }
+        return position;
+    }
+
+    private void removeWatcher(Watcher watcher) {
+        if (watcher.registered.compareAndSet(true, false)) {
+            watcherCount.decrementAndGet();
+        }
+        watchers.computeIfPresent(watcher.orderId, (id, set) -> {
+            set.remove(watcher);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private boolean shouldPersist(Position anterior, Position actual) {
+        if (anterior == null) {
+            return true;
+        }
+        if (!actual.fecha().isBefore(anterior.fecha().plusSeconds(minIntervalSeconds))) {
+            return true;
+        }
+        return distanceMeters(anterior, actual) >= minDistanceMeters;
+    }
+
+    /**
+     * Distancia aproximada (equirectangular), suficiente para distancias cortas
+     */
+    private static double distanceMeters(Position a, Position b) {
+        double lat1 = Math.toRadians(a.latitud());
+        double lat2 = Math.toRadians(b.latitud());
+        double x = Math.toRadians(b.longitud() - a.longitud()) * Math.cos((lat1 + lat2) / 2);
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_METERS;
+    }
+
+    private static CourierPositionResponse toResponse(ActiveOrder active, Position position) {
+        return new CourierPositionResponse(active.orderId(), active.deliveryId(), position.latitud(),
+                position.longitud(), position.precision(), position.fecha());
+    }
+
+    private record Position(long seq, double latitud, double longitud, Double precision, LocalDateTime fecha) {
+    }
+
+    private record ActiveOrder(Long orderId, Long deliveryId, Long usuarioId, LocalDateTime desde) {
+    }
+
+    /**
+     * Se superó el máximo de suscripciones de seguimiento (por pedido o en total)
+     */
+    public static class TooManyWatchersException extends RuntimeException {
+        public TooManyWatchersException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Buffer circular de pings de un repartidor; 'next' es la secuencia del próximo ping.
+     * Solo la tarea de persistencia usa 'flushed' y 'lastPersisted'
+     */
+    private static final class Track {
+        private final AtomicReferenceArray<Position> buffer;
+        private final AtomicLong next = new AtomicLong();
+        private long flushed;
+        private Position lastPersisted;
+
+        private Track(int size) {
+            this.buffer = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    /**
+     * Conexión SSE de un cliente; si un envío sigue en curso, el siguiente intervalo lo omite
+     */
+    private final class Watcher {
+        private final Long orderId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        private volatile Position lastSent;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Watcher(Long orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+
+        private void send(SseEmitter.SseEventBuilder event, Position position) {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            sender.execute(() -> {
+                try {
+                    emitter.send(event);
+                    lastSent = position;
+                    lastSentAt = System.currentTimeMillis();
+                    pushed.incrementAndGet();
+                } catch (IOException | IllegalStateException e) {
+                    removeWatcher(this);
+                } finally {
+                    sending.set(false);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DailyStockResponse;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.models.ProductDailyStock;
+import com.pasteleria.backend.repositories.OrderItemRepository;
+import com.pasteleria.backend.repositories.ProductDailyStockRepository;
+import com.pasteleria.backend.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Stock diario por producto
+ * Las reservas se hacen en memoria con un contador atómico por producto y día (compare-and-set),
+ * sin bloquear filas en la base de datos; las cantidades reservadas se escriben en diferido.
+ * La memoria es la fuente de verdad mientras la aplicación corre (una sola instancia)
+ */
+@Service
+public class DailyStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyStockService.class);
+
+    @Autowired
+    private ProductDailyStockRepository stockRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<StockKey, Counter> counters = new ConcurrentHashMap<>();
+
+    // Contadores con cambios sin escribir
+    private final Set<StockKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong reservations = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Carga en memoria el stock de hoy en adelante. Lo reservado se recalcula desde las líneas de pedidos
+     * no cancelados: la columna reservado puede haber quedado atrasada si el proceso terminó sin escribirla
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (ProductDailyStock stock : stockRepository.findByFechaGreaterThanEqual(LocalDate.now())) {
+            StockKey key = new StockKey(stock.getProductoId(), stock.getFecha());
+            int vendidas = (int) orderItemRepository.sumCantidad(stock.getProductoId(), stock.getFecha().atStartOfDay(),
+                    stock.getFecha().plusDays(1).atStartOfDay(), OrderStatus.CANCELADO);
+            if (counters.putIfAbsent(key, new Counter(stock.getCapacidad(), vendidas)) == null
+                    && vendidas != stock.getReservado()) {
+                log.info("Stock de producto {} para {}: reservado corregido de {} a {}",
+                        key.productoId(), key.fecha(), stock.getReservado(), vendidas);
+                dirty.add(key);
+            }
+        }
+    }
+
+    /**
+     * Reserva todas las cantidades del día o ninguna. Devuelve el ID del primer producto sin stock
+     * suficiente (o null si se reservó todo). Los productos sin stock configurado no tienen límite
+     */
+    public Long reserve(LocalDate fecha, Map<Long, Integer> cantidades) {
+        if (counters.isEmpty()) {
+            return null;
+        }
+        List<Map.Entry<Long, Integer>> reservadas = new ArrayList<>(cantidades.size());
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            StockKey key = new StockKey(linea.getKey(), fecha);
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                continue;
+            }
+            if (!counter.tryReserve(linea.getValue())) {
+                reservadas.forEach(r -> release(fecha, r.getKey(), r.getValue()));
+                rejections.incrementAndGet();
+                return linea.getKey();
+            }
+            dirty.add(key);
+            reservadas.add(linea);
+        }
+        reservations.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Devuelve al stock del día las cantidades indicadas
+     */
+    public void release(LocalDate fecha, Map<Long, Integer> cantidades) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        cantidades.forEach((productoId, cantidad) -> release(fecha, productoId, cantidad));
+    }
+
+    private void release(LocalDate fecha, Long productoId, int cantidad) {
+        StockKey key = new StockKey(productoId, fecha);
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.release(cantidad);
+            dirty.add(key);
+        }
+    }
+
+    /**
+     * Devuelve el stock de los pedidos cancelados (después de confirmar la cancelación)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.estado() != OrderStatus.CANCELADO || counters.isEmpty()) {
+            return;
+        }
+        for (OrderItemRepository.ItemLine line : orderItemRepository.findLinesByOrderId(event.pedidoId())) {
+            release(line.getFecha().toLocalDate(), line.getProductoId(), line.getCantidad());
+        }
+        releases.incrementAndGet();
+    }
+
+    /**
+     * Fija la capacidad de un producto para un día. Si el día no tenía stock configurado,
+     * las unidades ya vendidas ese día cuentan como reservadas
+     */
+    @Transactional
+    public DailyStockResponse setCapacity(Long productoId, LocalDate fecha, int capacidad) {
+        Product product = productRepository.findById(productoId)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + productoId));
+        if (fecha.isBefore(LocalDate.now())) {
+            throw new RuntimeException("No se puede configurar el stock de un día pasado");
+        }
+
+        StockKey key = new StockKey(productoId, fecha);
+        ProductDailyStock stock = stockRepository.findByProductoIdAndFecha(productoId, fecha).orElse(null);
+        Counter counter;
+        if (stock == null) {
+            // El contador se instala antes de contar lo vendido: desde este instante toda reserva pasa por el límite.
+            // Luego se suman solo los pedidos creados hasta la instalación, que no pudieron reservar en él
+            LocalDateTime instalado = LocalDateTime.now();
+            Counter nuevo = new Counter(capacidad, 0);
+            Counter existente = counters.putIfAbsent(key, nuevo);
+            counter = existente != null ? existente : nuevo;
+            counter.capacidad = capacidad;
+            if (existente == null) {
+                removeOnRollback(key, nuevo);
+                long vendidas = orderItemRepository.sumCantidadCreatedUntil(productoId, fecha.atStartOfDay(),
+                        fecha.plusDays(1).atStartOfDay(), OrderStatus.CANCELADO, instalado);
+                counter.reservado.addAndGet((int) vendidas);
+            }
+            stock = new ProductDailyStock();
+            stock.setProductoId(productoId);
+            stock.setFecha(fecha);
+            stock.setReservado(counter.reservado.get());
+        } else {
+            int guardado = stock.getReservado();
+            counter = counters.computeIfAbsent(key, k -> new Counter(capacidad, guardado));
+            counter.capacidad = capacidad;
+            stock.setReservado(counter.reservado.get());
+        }
+        stock.setCapacidad(capacidad);
+        stock.setFechaActualizacion(LocalDateTime.now());
+        stockRepository.save(stock);
+        counters.putIfAbsent(key, counter);
+
+        return toResponse(key, counters.get(key), product.getNombre());
+    }
+
+    /**
+     * Si la fila nueva no llega a guardarse, se quita el contador instalado para ella
+     */
+    private void removeOnRollback(StockKey key, Counter counter) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        counters.remove(key, counter);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Stock configurado para un día, con lo reservado según la memoria
+     */
+    public List<DailyStockResponse> getStock(LocalDate fecha) {
+        List<ProductDailyStock> rows = stockRepository.findByFechaOrderByProductoId(fecha);
+        Map<Long, String> nombres = productRepository.findAllById(
+                        rows.stream().map(ProductDailyStock::getProductoId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getNombre));
+        return rows.stream()
+                .map(row -> {
+                    StockKey key = new StockKey(row.getProductoId(), row.getFecha());
+                    Counter counter = counters.getOrDefault(key, new Counter(row.getCapacidad(), row.getReservado()));
+                    return toResponse(key, counter, nombres.get(row.getProductoId()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Escribe las cantidades reservadas que cambiaron y descarta de memoria los días pasados
+     */
+    @Scheduled(fixedDelayString = "${stock.flush-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public synchronized void flush() {
+        if (!dirty.isEmpty()) {
+            List<StockKey> keys = new ArrayList<>(dirty);
+            keys.forEach(dirty::remove);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    LocalDateTime ahora = LocalDateTime.now();
+                    for (StockKey key : keys) {
+                        Counter counter = counters.get(key);
+                        if (counter != null) {
+                            stockRepository.updateReservado(key.productoId(), key.fecha(), counter.reservado.get(), ahora);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("No se pudo escribir el stock diario, se reintentará: {}", e.getMessage());
+                dirty.addAll(keys);
+                return;
+            }
+        }
+        LocalDate hoy = LocalDate.now();
+        counters.keySet().removeIf(key -> key.fecha().isBefore(hoy) && !dirty.contains(key));
+    }
+
+    /**
+     * Escribe las reservas pendientes al apagar
+     */
+    @PreDestroy
+    void shutdown() {
+        flush();
+        if (!dirty.isEmpty()) {
+            log.warn("Quedaron {} contadores de stock sin escribir; se recalculan al iniciar", dirty.size());
+        }
+    }
+
+    /**
+     * Contadores del stock diario para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("counters", counters.size());
+        stats.put("pendingWrites", dirty.size());
+        stats.put("reservations", reservations.get());
+        stats.put("rejections", rejections.get());
+        stats.put("releases", releases.get());
+        return stats;
+    }
+
+    private static DailyStockResponse toResponse(StockKey key, Counter counter, String nombre) {
+        int reservado = counter.reservado.get();
+        return new DailyStockResponse(key.productoId(), nombre, key.fecha(), counter.capacidad, reservado,
+                Math.max(0, counter.capacidad - reservado));
+    }
+
+    private record StockKey(Long productoId, LocalDate fecha) {
+    }
+
+    private static final class Counter {
+        private volatile int capacidad;
+        private final AtomicInteger reservado;
+
+        private Counter(int capacidad, int reservado) {
+            this.capacidad = capacidad;
+            this.reservado = new AtomicInteger(reservado);
+        }
+
+        private boolean tryReserve(int cantidad) {
+            while (true) {
+                int actual = reservado.get();
+                if ((long) actual + cantidad > capacidad) {
+                    return false;
+                }
+                if (reservado.compareAndSet(actual, actual + cantidad)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release(int cantidad) {
+            while (true) {
+                int actual = reservado.get();
+                if (reservado.compareAndSet(actual, Math.max(0, actual - cantidad))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.events.DeliveryAssignedEvent;
+import com.pasteleria.backend.events.DeliveryCompletedEvent;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.repositories.DeliveryAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Estimación de la hora de entrega de los pedidos asignados
+ * Mantiene en memoria el promedio del tiempo asignación-entrega por hora del día y por carga del repartidor
+ * (pedidos abiertos al momento de la asignación). Se actualiza con cada entrega, así calcular un ETA es
+ * una lectura en memoria y no una consulta
+ */
+@Service
+public class DeliveryEtaService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryEtaService.class);
+
+    private static final int HOURS = 24;
+
+    // Cargas: 1, 2, 3-4, 5-7, 8 o más pedidos abiertos
+    private static final int[] LOAD_LIMITS = {1, 2, 4, 7};
+    private static final int LOAD_BUCKETS = LOAD_LIMITS.length + 1;
+
+    // Con más muestras que esto el promedio pasa a ser móvil y sigue los cambios recientes
+    private static final int MAX_WEIGHT = 200;
+
+    // Un pedido demorado no muestra una hora pasada: se estima que llega en unos minutos
+    private static final Duration OVERDUE_MARGIN = Duration.ofMinutes(5);
+
+    @Autowired
+    private DeliveryAssignmentRepository deliveryAssignmentRepository;
+
+    @Value("${delivery.eta.min-samples:5}")
+    private int minSamples;
+
+    @Value("${delivery.eta.default-minutes:45}")
+    private int defaultMinutes;
+
+    @Value("${delivery.eta.seed-days:30}")
+    private int seedDays;
+
+    // Promedios por hora y carga, por hora (cualquier carga) y general
+    private final AtomicReferenceArray<Stats> porHoraYCarga = new AtomicReferenceArray<>(HOURS * LOAD_BUCKETS);
+    private final AtomicReferenceArray<Stats> porHora = new AtomicReferenceArray<>(HOURS);
+    private final AtomicReferenceArray<Stats> general = new AtomicReferenceArray<>(1);
+
+    // Pedidos abiertos de cada repartidor y, por pedido, la carga que tenía su repartidor al asignarlo
+    private final Map<Long, AtomicInteger> abiertosPorRepartidor = new ConcurrentHashMap<>();
+    private final Map<Long, OpenOrder> abiertos = new ConcurrentHashMap<>();
+
+    /**
+     * Carga las asignaciones abiertas y alimenta el modelo con las entregas recientes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (DeliveryAssignmentRepository.ActiveDelivery active : deliveryAssignmentRepository
+                .findActiveDeliveriesIn(EnumSet.of(OrderStatus.POR_ENTREGAR, OrderStatus.EN_CAMINO))) {
+            int carga = abiertosPorRepartidor.computeIfAbsent(active.getDeliveryId(), id -> new AtomicInteger())
+                    .incrementAndGet();
+            abiertos.putIfAbsent(active.getPedidoId(), new OpenOrder(active.getDeliveryId(), carga));
+        }
+        // El historial no guarda la carga de cada entrega: solo alimenta los promedios por hora y el general
+        int muestras = 0;
+        for (DeliveryAssignmentRepository.DeliveryDuration entrega :
+                deliveryAssignmentRepository.findDeliveredSince(LocalDateTime.now().minusDays(seedDays))) {
+            long segundos = Duration.between(entrega.getFechaAsignacion(), entrega.getFechaEntrega()).toSeconds();
+            if (segundos >= 0) {
+                int hora = entrega.getFechaAsignacion().getHour();
+                update(porHora, hora, segundos);
+                update(general, 0, segundos);
+                muestras++;
+            }
+        }
+        log.info("Modelo de ETA iniciado con {} entregas y {} pedidos abiertos", muestras, abiertos.size());
+    }
+
+    /**
+     * Hora estimada de entrega de un pedido asignado
+     */
+    public LocalDateTime estimate(Long orderId, Long deliveryId, LocalDateTime fechaAsignacion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (fechaAsignacion == null) {
+            return ahora.plusMinutes(defaultMinutes);
+        }
+        OpenOrder open = abiertos.get(orderId);
+        int carga = open != null ? open.carga() : Math.max(1, currentLoad(deliveryId));
+        LocalDateTime estimada = fechaAsignacion.plusSeconds(expectedSeconds(fechaAsignacion.getHour(), carga));
+        return estimada.isBefore(ahora) ? ahora.plus(OVERDUE_MARGIN) : estimada;
+    }
+
+    /**
+     * Registra la carga del repartidor al recibir el pedido
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryAssigned(DeliveryAssignedEvent event) {
+        int carga = abiertosPorRepartidor.computeIfAbsent(event.deliveryId(), id -> new AtomicInteger())
+                .incrementAndGet();
+        abiertos.put(event.pedidoId(), new OpenOrder(event.deliveryId(), carga));
+    }
+
+    /**
+     * Suma la duración de la entrega al modelo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryCompleted(DeliveryCompletedEvent event) {
+        if (event.fechaAsignacion() == null) {
+            return;
+        }
+        long segundos = Duration.between(event.fechaAsignacion(), event.fechaEntrega()).toSeconds();
+        if (segundos < 0) {
+            return;
+        }
+        OpenOrder open = abiertos.get(event.pedidoId());
+        int carga = open != null ? open.carga() : Math.max(1, currentLoad(event.deliveryId()));
+        int hora = event.fechaAsignacion().getHour();
+        update(porHoraYCarga, hora * LOAD_BUCKETS + loadBucket(carga), segundos);
+        update(porHora, hora, segundos);
+        update(general, 0, segundos);
+    }
+
+    /**
+     * Un pedido entregado o cancelado deja de contar en la carga de su repartidor
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (!event.estado().isFinal()) {
+            return;
+        }
+        OpenOrder open = abiertos.remove(event.pedidoId());
+        if (open != null) {
+            AtomicInteger carga = abiertosPorRepartidor.get(open.deliveryId());
+            if (carga != null) {
+                carga.updateAndGet(n -> Math.max(0, n - 1));
+            }
+        }
+    }
+
+    /**
+     * Estado del modelo para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Stats total = general.get(0);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("samples", total != null ? total.count() : 0);
+        stats.put("meanMinutes", total != null ? Math.round(total.mean() / 6) / 10.0 : null);
+        stats.put("openOrders", abiertos.size());
+        return stats;
+    }
+
+    long expectedSeconds(int hora, int carga) {
+        Stats celda = porHoraYCarga.get(hora * LOAD_BUCKETS + loadBucket(carga));
+        if (celda != null && celda.count() >= minSamples) {
+            return Math.round(celda.mean());
+        }
+        Stats deLaHora = porHora.get(hora);
+        if (deLaHora != null && deLaHora.count() >= minSamples) {
+            return Math.round(deLaHora.mean());
+        }
+        Stats total = general.get(0);
+        if (total != null && total.count() >= minSamples) {
+            return Math.round(total.mean());
+        }
+        return defaultMinutes * 60L;
+    }
+
+    private int currentLoad(Long deliveryId) {
+        AtomicInteger carga = abiertosPorRepartidor.get(deliveryId);
+        return carga != null ? carga.get() : 0;
+    }
+
+    private static int loadBucket(int carga) {
+        for (int i = 0; i < LOAD_LIMITS.length; i++) {
+            if (carga <= LOAD_LIMITS[i]) {
+                return i;
+            }
+        }
+        return LOAD_LIMITS.length;
+    }
+
+    private static void update(AtomicReferenceArray<Stats> cells, int index, long segundos) {
+        cells.updateAndGet(index, actual -> actual == null ? new Stats(1, segundos) : actual.add(segundos));
+    }
+
+    private record OpenOrder(Long deliveryId, int carga) {
+    }
+
+    /**
+     * Promedio incremental; superadas MAX_WEIGHT muestras cada entrega nueva pesa 1/MAX_WEIGHT
+     */
+    private record Stats(long count, double mean) {
+        private Stats add(long segundos) {
+            long n = count + 1;
+            return new Stats(n, mean + (segundos - mean) / Math.min(n, MAX_WEIGHT));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DeliveryMetricsResponse;
+import com.pasteleria.backend.events.DeliveryCompletedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Métricas de tiempos de entrega, generales y por repartidor
+ * Cada entrega se registra en histogramas en memoria divididos en intervalos de tiempo; los percentiles
+ * de una ventana se calculan combinando los intervalos que la cubren, sin recorrer delivery_assignment.
+ * Las métricas se acumulan desde el inicio de la aplicación
+ */
+@Service
+public class DeliveryMetricsService {
+
+    private final long sliceMillis;
+    private final int slices;
+
+    private final Metrics general;
+    private final Map<Long, Metrics> porRepartidor = new ConcurrentHashMap<>();
+
+    public DeliveryMetricsService(@Value("${delivery.metrics.slice-minutes:5}") int sliceMinutes,
+                                  @Value("${delivery.metrics.retention-hours:24}") int retentionHours) {
+        this.sliceMillis = TimeUnit.MINUTES.toMillis(sliceMinutes);
+        this.slices = Math.max(1, retentionHours * 60 / sliceMinutes);
+        this.general = new Metrics(slices);
+    }
+
+    /**
+     * Registra los tiempos de una entrega confirmada
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryCompleted(DeliveryCompletedEvent event) {
+        record(event.deliveryId(), event.fechaPedido(), event.fechaAsignacion(), event.fechaEntrega(),
+                System.currentTimeMillis());
+    }
+
+    void record(Long deliveryId, LocalDateTime fechaPedido, LocalDateTime fechaAsignacion,
+                LocalDateTime fechaEntrega, long ahora) {
+        long slice = ahora / sliceMillis;
+        Metrics courier = porRepartidor.computeIfAbsent(deliveryId, id -> new Metrics(slices));
+        if (fechaAsignacion != null) {
+            long segundos = Duration.between(fechaAsignacion, fechaEntrega).toSeconds();
+            general.asignacionEntrega.record(slice, segundos);
+            courier.asignacionEntrega.record(slice, segundos);
+        }
+        if (fechaPedido != null) {
+            long segundos = Duration.between(fechaPedido, fechaEntrega).toSeconds();
+            general.pedidoEntrega.record(slice, segundos);
+            courier.pedidoEntrega.record(slice, segundos);
+        }
+    }
+
+    /**
+     * Percentiles generales de los últimos 'minutos'
+     */
+    public DeliveryMetricsResponse getMetrics(Integer minutos) {
+        int ventana = windowSlices(minutos);
+        return toResponse(null, general, ventana, System.currentTimeMillis());
+    }
+
+    /**
+     * Percentiles de cada repartidor con entregas en los últimos 'minutos', del más lento al más rápido (p90)
+     */
+    public List<DeliveryMetricsResponse> getCourierMetrics(Integer minutos) {
+        int ventana = windowSlices(minutos);
+        long ahora = System.currentTimeMillis();
+        List<DeliveryMetricsResponse> result = new ArrayList<>();
+        porRepartidor.forEach((deliveryId, metrics) -> {
+            DeliveryMetricsResponse response = toResponse(deliveryId, metrics, ventana, ahora);
+            if (response.getAsignacionEntrega().getEntregas() > 0 || response.getPedidoEntrega().getEntregas() > 0) {
+                result.add(response);
+            }
+        });
+        result.sort(Comparator.comparing((DeliveryMetricsResponse r) -> r.getAsignacionEntrega().getP90(),
+                        Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(DeliveryMetricsResponse::getDeliveryId));
+        return result;
+    }
+
+    /**
+     * Percentiles de un repartidor en los últimos 'minutos'
+     */
+    public DeliveryMetricsResponse getCourierMetrics(Long deliveryId, Integer minutos) {
+        int ventana = windowSlices(minutos);
+        Metrics metrics = porRepartidor.getOrDefault(deliveryId, new Metrics(1));
+        return toResponse(deliveryId, metrics, ventana, System.currentTimeMillis());
+    }
+
+    private int windowSlices(Integer minutos) {
+        long sliceMinutes = TimeUnit.MILLISECONDS.toMinutes(sliceMillis);
+        int solicitados = minutos == null ? 60 : minutos;
+        if (solicitados <= 0) {
+            throw new IllegalArgumentException("La ventana debe ser de al menos un minuto");
+        }
+        return (int) Math.max(1, Math.min(slices, (solicitados + sliceMinutes - 1) / sliceMinutes));
+    }
+
+    private DeliveryMetricsResponse toResponse(Long deliveryId, Metrics metrics, int ventana, long ahora) {
+        long slice = ahora / sliceMillis;
+        int ventanaMinutos = (int) (ventana * TimeUnit.MILLISECONDS.toMinutes(sliceMillis));
+        return new DeliveryMetricsResponse(deliveryId, ventanaMinutos,
+                metrics.asignacionEntrega.percentiles(slice, ventana),
+                metrics.pedidoEntrega.percentiles(slice, ventana));
+    }
+
+    private static final class Metrics {
+        private final SlidingHistogram asignacionEntrega;
+        private final SlidingHistogram pedidoEntrega;
+
+        private Metrics(int slices) {
+            this.asignacionEntrega = new SlidingHistogram(slices);
+            this.pedidoEntrega = new SlidingHistogram(slices);
+        }
+    }
+
+    /**
+     * Anillo de histogramas, uno por intervalo de tiempo; el de un intervalo viejo se reemplaza
+     * al primer registro que cae en su posición
+     */
+    private static final class SlidingHistogram {
+        private final AtomicReferenceArray<Slice> ring;
+
+        private SlidingHistogram(int slices) {
+            this.ring = new AtomicReferenceArray<>(slices);
+        }
+
+        private void record(long slice, long segundos) {
+            int index = (int) (slice % ring.length());
+            Slice current = ring.get(index);
+            while (current == null || current.slice() != slice) {
+                Slice nuevo = new Slice(slice);
+                if (ring.compareAndSet(index, current, nuevo)) {
+                    current = nuevo;
+                } else {
+                    current = ring.get(index);
+                }
+            }
+            current.histogram().record(segundos);
+        }
+
+        private DeliveryMetricsResponse.Percentiles percentiles(long slice, int ventana) {
+            long[] counts = DurationHistogram.newCounts();
+            for (int i = 0; i < ring.length(); i++) {
+                Slice current = ring.get(i);
+                if (current != null && current.slice() > slice - ventana && current.slice() <= slice) {
+                    current.histogram().mergeInto(counts);
+                }
+            }
+            long total = DurationHistogram.total(counts);
+            if (total == 0) {
+                return new DeliveryMetricsResponse.Percentiles(0L, null, null, null, null);
+            }
+            return new DeliveryMetricsResponse.Percentiles(total,
+                    DurationHistogram.percentile(counts, total, 50),
+                    DurationHistogram.percentile(counts, total, 90),
+                    DurationHistogram.percentile(counts, total, 99),
+                    DurationHistogram.max(counts));
+        }
+    }
+
+    private record Slice(long slice, DurationHistogram histogram) {
+        private Slice(long slice) {
+            this(slice, new DurationHistogram());
+        }
+    }
+}
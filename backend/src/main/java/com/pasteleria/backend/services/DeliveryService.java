@@ -1,17 +1,26 @@
 package com.pasteleria.backend.services;
 
 import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.events.DeliveryAssignedEvent;
+import com.pasteleria.backend.events.DeliveryCompletedEvent;
 import com.pasteleria.backend.models.*;
 import com.pasteleria.backend.repositories.DeliveryAssignmentRepository;
 import com.pasteleria.backend.repositories.OrderRepository;
 import com.pasteleria.backend.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
@@ -36,14 +45,20 @@ public class DeliveryService {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${delivery.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${delivery.page.max-size:200}")
+    private int maxPageSize;
+
     /**
      * Asigna un pedido a un repartidor (Solo ADMIN)
      */
     @Transactional
     public OrderResponse assignOrderToDelivery(Long orderId, Long deliveryId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
-
         User delivery = userRepository.findById(deliveryId)
                 .orElseThrow(() -> new RuntimeException("Repartidor no encontrado"));
 
@@ -51,24 +66,29 @@ public class DeliveryService {
             throw new RuntimeException("El usuario no es un repartidor");
         }
 
-        // Verificar si ya tiene asignación
-        if (deliveryAssignmentRepository.existsByOrder(order)) {
-            throw new RuntimeException("El pedido ya está asignado a un repartidor");
+        // Actualizar estado del pedido a POR_ENTREGAR, solo si nadie lo finalizó mientras tanto
+        LocalDateTime ahora = LocalDateTime.now();
+        int updated = orderRepository.updateEstadoIf(
+                orderId, OrderStatus.activos(), null, OrderStatus.POR_ENTREGAR, ahora);
+        if (updated == 0) {
+            throw orderService.statusUpdateFailure(orderId, null);
         }
 
-        // Crear asignación
+        // Crear asignación; la restricción única de id_order rechaza una segunda asignación sin consultarla antes
         DeliveryAssignment assignment = new DeliveryAssignment();
-        assignment.setOrder(order);
+        assignment.setOrder(orderRepository.getReferenceById(orderId));
         assignment.setDelivery(delivery);
-        assignment.setFechaAsignacion(LocalDateTime.now());
-
-        deliveryAssignmentRepository.save(assignment);
-
-        // Actualizar estado del pedido a POR_ENTREGAR
-        order.setEstado(OrderStatus.POR_ENTREGAR);
-        orderRepository.save(order);
+        assignment.setFechaAsignacion(ahora);
+        try {
+            deliveryAssignmentRepository.saveAndFlush(assignment);
+        } catch (DataIntegrityViolationException e) {
+            throw new OrderConflictException("El pedido ya está asignado a un repartidor");
+        }
 
-        return orderService.getOrderById(orderId);
+        OrderResponse response = orderService.getOrderById(orderId);
+        orderService.publishStatusChange(response);
+        eventPublisher.publishEvent(new DeliveryAssignedEvent(orderId, deliveryId, ahora));
+        return response;
     }
 
     /**
@@ -79,65 +99,104 @@ public class DeliveryService {
     }
 
     /**
-     * Obtiene los pedidos asignados al delivery actual
+     * Obtiene una página de los pedidos asignados al delivery actual; sin página, todos
      */
-    public List<OrderResponse> getMyAssignedOrders() {
+    public Page<OrderResponse> getMyAssignedOrders(Integer page, Integer size) {
         User currentDelivery = authService.getCurrentUser();
         
         if (currentDelivery.getRol() != Role.DELIVERY) {
             throw new RuntimeException("Usuario no es un repartidor");
         }
 
-        List<Order> orders = orderRepository.findByDeliveryId(currentDelivery.getId());
-        
-        return orders.stream()
-                .map(order -> orderService.getOrderById(order.getId()))
-                .collect(Collectors.toList());
+        Page<Long> ids = orderRepository.findIdsByDeliveryId(currentDelivery.getId(), pageRequest(page, size));
+        return toResponsePage(ids);
     }
 
     /**
-     * Actualiza el estado de un pedido (Solo DELIVERY asignado)
+     * Actualiza el estado de un pedido (Solo DELIVERY asignado) con una única actualización condicional:
+     * el pedido debe seguir activo, asignado a este repartidor y en la versión esperada
      */
     @Transactional
-    public OrderResponse updateDeliveryStatus(Long orderId, OrderStatus newStatus) {
-        User currentDelivery = authService.getCurrentUser();
-
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
-
-        // Verificar que este delivery está asignado a este pedido
-        if (order.getDeliveryAssignment() == null ||
-                !order.getDeliveryAssignment().getDelivery().getId().equals(currentDelivery.getId())) {
-            throw new RuntimeException("No tienes permiso para actualizar este pedido");
+    public OrderResponse updateDeliveryStatus(Long orderId, OrderStatus newStatus, Long expectedVersion) {
+        if (expectedVersion == null) {
+            throw new RuntimeException("La versión del pedido es obligatoria");
         }
+        User currentDelivery = authService.getCurrentUser();
 
         // Solo permitir transiciones a EN_CAMINO y ENTREGADO
         if (newStatus != OrderStatus.EN_CAMINO && newStatus != OrderStatus.ENTREGADO) {
             throw new RuntimeException("Estado no válido para delivery");
         }
 
-        order.setEstado(newStatus);
+        LocalDateTime ahora = LocalDateTime.now();
+        int updated = orderRepository.updateEstadoIfAssigned(
+                orderId, currentDelivery.getId(), OrderStatus.activos(), expectedVersion, newStatus, ahora);
+        if (updated == 0) {
+            // Verificar que este delivery está asignado a este pedido
+            if (!deliveryAssignmentRepository.existsByOrderIdAndDeliveryId(orderId, currentDelivery.getId())) {
+                throw new RuntimeException(orderRepository.existsById(orderId)
+                        ? "No tienes permiso para actualizar este pedido"
+                        : "Pedido no encontrado");
+            }
+            throw orderService.statusUpdateFailure(orderId, expectedVersion);
+        }
 
         // Si se marca como entregado, registrar la fecha de entrega
         if (newStatus == OrderStatus.ENTREGADO) {
-            DeliveryAssignment assignment = order.getDeliveryAssignment();
-            assignment.setFechaEntrega(LocalDateTime.now());
-            deliveryAssignmentRepository.save(assignment);
+            deliveryAssignmentRepository.updateFechaEntrega(orderId, ahora);
+        }
+
+        OrderResponse response = orderService.getOrderById(orderId);
+        // La entrega se publica antes del cambio de estado: los listeners la reciben mientras el pedido
+        // todavía figura como abierto en sus índices en memoria
+        if (newStatus == OrderStatus.ENTREGADO) {
+            LocalDateTime fechaAsignacion = deliveryAssignmentRepository.findFechaAsignacionByOrderId(orderId)
+                    .orElse(null);
+            eventPublisher.publishEvent(new DeliveryCompletedEvent(
+                    orderId, currentDelivery.getId(), response.getFecha(), fechaAsignacion, ahora));
         }
+        orderService.publishStatusChange(response);
+        return response;
+    }
 
-        orderRepository.save(order);
+    /**
+     * Obtiene una página de pedidos con sus asignaciones (Solo ADMIN); sin página, todos
+     */
+    public Page<OrderResponse> getAllOrdersWithDelivery(Integer page, Integer size) {
+        return toResponsePage(orderRepository.findAllIds(pageRequest(page, size)));
+    }
 
-        return orderService.getOrderById(orderId);
+    /**
+     * Primero se pagina sobre IDs y luego se cargan solo esos pedidos con su detalle;
+     * así el costo depende del tamaño de página y no del total de pedidos
+     */
+    private Page<OrderResponse> toResponsePage(Page<Long> ids) {
+        List<Long> idList = ids.getContent();
+        List<OrderResponse> content;
+        if (idList.size() <= maxPageSize) {
+            content = orderService.getOrderResponses(idList);
+        } else {
+            // Sin paginar el detalle se carga en tandas para no armar un IN con todos los pedidos
+            content = new ArrayList<>(idList.size());
+            for (int from = 0; from < idList.size(); from += maxPageSize) {
+                content.addAll(orderService.getOrderResponses(
+                        idList.subList(from, Math.min(from + maxPageSize, idList.size()))));
+            }
+        }
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
     /**
-     * Obtiene todos los pedidos con sus asignaciones (Solo ADMIN)
+     * Sin número de página se devuelve el listado completo, como antes de paginar.
+     * Es temporal: el frontend ya pagina, y solo queda para clientes desplegados antes del cambio;
+     * se retira cuando ninguno llame sin page
      */
-    public List<OrderResponse> getAllOrdersWithDelivery() {
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream()
-                .map(order -> orderService.getOrderById(order.getId()))
-                .collect(Collectors.toList());
+    private Pageable pageRequest(Integer page, Integer size) {
+        if (page == null) {
+            return Pageable.unpaged();
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return PageRequest.of(Math.max(page, 0), pageSize);
     }
     /**
      * Crea un usuario repartidor (Solo ADMIN)
@@ -0,0 +1,218 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DeliverySlotResponse;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Role;
+import com.pasteleria.backend.repositories.OrderRepository;
+import com.pasteleria.backend.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Franjas de entrega reservables
+ * La capacidad de cada franja es (repartidores activos × pedidos por repartidor). Las reservas se
+ * llevan en un calendario en memoria con un contador atómico por franja (compare-and-set), así que
+ * consultar la disponibilidad no hace un COUNT por franja
+ */
+@Service
+public class DeliverySlotService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${delivery.slots.windows:10:00-12:00,12:00-14:00,14:00-16:00,16:00-18:00,18:00-20:00}")
+    private String windowsConfig;
+
+    @Value("${delivery.slots.orders-per-courier:4}")
+    private int ordersPerCourier;
+
+    @Value("${delivery.slots.days-ahead:7}")
+    private int daysAhead;
+
+    @Value("${delivery.slots.min-lead-minutes:60}")
+    private int minLeadMinutes;
+
+    private List<Window> windows;
+
+    // Capacidad por franja; se recalcula periódicamente con los repartidores activos
+    private volatile int capacity;
+
+    // Pedidos reservados por inicio de franja
+    private final Map<LocalDateTime, AtomicInteger> booked = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        List<Window> parsed = new ArrayList<>();
+        for (String franja : windowsConfig.split(",")) {
+            String[] partes = franja.trim().split("-");
+            try {
+                if (partes.length != 2) {
+                    throw new DateTimeParseException("Formato esperado HH:mm-HH:mm", franja, 0);
+                }
+                Window window = new Window(LocalTime.parse(partes[0].trim()), LocalTime.parse(partes[1].trim()));
+                if (!window.fin().isAfter(window.inicio())) {
+                    throw new DateTimeParseException("La franja debe terminar después de empezar", franja, 0);
+                }
+                parsed.add(window);
+            } catch (DateTimeParseException e) {
+                throw new IllegalStateException("Franja de entrega inválida en delivery.slots.windows: " + franja, e);
+            }
+        }
+        parsed.sort(Comparator.comparing(Window::inicio));
+        windows = List.copyOf(parsed);
+    }
+
+    /**
+     * Carga las reservas existentes (una consulta agrupada) y la capacidad al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refreshCapacity();
+        for (OrderRepository.SlotCount count : orderRepository.countBySlotFrom(
+                LocalDate.now().atStartOfDay(), OrderStatus.CANCELADO)) {
+            booked.put(count.getFranjaInicio(), new AtomicInteger(count.getCantidad().intValue()));
+        }
+    }
+
+    /**
+     * Recalcula la capacidad con los repartidores activos y descarta las franjas ya terminadas
+     */
+    @Scheduled(fixedDelayString = "${delivery.slots.refresh-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        refreshCapacity();
+        LocalDateTime inicioHoy = LocalDate.now().atStartOfDay();
+        booked.keySet().removeIf(inicio -> inicio.isBefore(inicioHoy));
+    }
+
+    private void refreshCapacity() {
+        capacity = (int) Math.min(Integer.MAX_VALUE,
+                userRepository.countByRolAndActivoTrue(Role.DELIVERY) * ordersPerCourier);
+    }
+
+    /**
+     * Reserva un lugar en la franja que empieza en la fecha indicada.
+     * Lanza RuntimeException si la franja no existe, ya no se puede elegir o está completa
+     */
+    public Slot book(LocalDateTime inicio) {
+        Window window = windowAt(inicio);
+        if (window == null) {
+            throw new RuntimeException("La franja de entrega no existe");
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        if (inicio.isBefore(ahora.plusMinutes(minLeadMinutes))) {
+            throw new RuntimeException("La franja de entrega ya no está disponible");
+        }
+        if (inicio.toLocalDate().isAfter(ahora.toLocalDate().plusDays(daysAhead))) {
+            throw new RuntimeException("Solo se puede reservar con hasta " + daysAhead + " días de anticipación");
+        }
+
+        AtomicInteger reservados = booked.computeIfAbsent(inicio, k -> new AtomicInteger());
+        while (true) {
+            int actual = reservados.get();
+            if (actual >= capacity) {
+                throw new RuntimeException("La franja de entrega está completa");
+            }
+            if (reservados.compareAndSet(actual, actual + 1)) {
+                return new Slot(inicio, inicio.toLocalDate().atTime(window.fin()));
+            }
+        }
+    }
+
+    /**
+     * Libera un lugar de la franja indicada
+     */
+    public void release(LocalDateTime inicio) {
+        AtomicInteger reservados = booked.get(inicio);
+        if (reservados != null) {
+            reservados.getAndUpdate(actual -> Math.max(0, actual - 1));
+        }
+    }
+
+    /**
+     * Libera la franja de los pedidos cancelados (después de confirmar la cancelación)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.estado() != OrderStatus.CANCELADO || booked.isEmpty()) {
+            return;
+        }
+        LocalDateTime inicio = orderRepository.findFranjaInicioById(event.pedidoId());
+        if (inicio != null) {
+            release(inicio);
+        }
+    }
+
+    /**
+     * Franjas que todavía se pueden elegir: las de un día o, sin fecha, las de los próximos días
+     */
+    public List<DeliverySlotResponse> getAvailableSlots(LocalDate fecha) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate hoy = ahora.toLocalDate();
+        LocalDate desde = fecha != null ? fecha : hoy;
+        LocalDate hasta = fecha != null ? fecha : hoy.plusDays(daysAhead);
+        if (desde.isBefore(hoy)) {
+            desde = hoy;
+        }
+        if (hasta.isAfter(hoy.plusDays(daysAhead))) {
+            hasta = hoy.plusDays(daysAhead);
+        }
+
+        LocalDateTime limite = ahora.plusMinutes(minLeadMinutes);
+        int capacidad = capacity;
+        List<DeliverySlotResponse> slots = new ArrayList<>();
+        for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+            for (Window window : windows) {
+                LocalDateTime inicio = dia.atTime(window.inicio());
+                if (inicio.isBefore(limite)) {
+                    continue;
+                }
+                AtomicInteger contador = booked.get(inicio);
+                int reservados = contador != null ? contador.get() : 0;
+                slots.add(new DeliverySlotResponse(inicio, dia.atTime(window.fin()), capacidad, reservados,
+                        Math.max(0, capacidad - reservados)));
+            }
+        }
+        return slots;
+    }
+
+    private Window windowAt(LocalDateTime inicio) {
+        LocalTime hora = inicio.toLocalTime();
+        for (Window window : windows) {
+            if (window.inicio().equals(hora)) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Franja reservada: inicio y fin
+     */
+    public record Slot(LocalDateTime inicio, LocalDateTime fin) {
+    }
+
+    private record Window(LocalTime inicio, LocalTime fin) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DeliveryZoneRequest;
+import com.pasteleria.backend.dto.DeliveryZoneResponse;
+import com.pasteleria.backend.models.DeliveryZone;
+import com.pasteleria.backend.models.Money;
+import com.pasteleria.backend.repositories.DeliveryZoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio de zonas de reparto
+ * Las zonas se editan en la base y se consultan en un índice espacial en memoria: el checkout
+ * obtiene la zona y el costo de envío de unas coordenadas sin ir a la base. Después de cada cambio
+ * confirmado el índice se reconstruye completo y se reemplaza de una sola vez
+ */
+@Service
+public class DeliveryZoneService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryZoneService.class);
+
+    @Autowired
+    private DeliveryZoneRepository deliveryZoneRepository;
+
+    @Value("${delivery.zones.grid-size:32}")
+    private int gridSize;
+
+    // Se reemplaza entero; las búsquedas leen una versión consistente sin bloqueos
+    private volatile ZoneIndex index = ZoneIndex.EMPTY;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong rebuildFailures = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Zona que contiene las coordenadas; null si hay zonas definidas y ninguna las contiene.
+     * Sin zonas definidas no se restringe el reparto y se devuelve una zona sin costo
+     */
+    public Match findZone(double latitud, double longitud) {
+        ZoneIndex actual = index;
+        lookups.incrementAndGet();
+        if (actual.isEmpty()) {
+            return Match.SIN_ZONAS;
+        }
+        ZoneIndex.Zone zone = actual.find(latitud, longitud);
+        if (zone == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        return new Match(zone.id, zone.nombre, zone.costoEnvioCentavos);
+    }
+
+    /**
+     * Indica si hay zonas activas; en ese caso todo pedido debe traer sus coordenadas
+     */
+    public boolean hasZones() {
+        return !index.isEmpty();
+    }
+
+    public List<DeliveryZoneResponse> getZones() {
+        return deliveryZoneRepository.findAllByOrderById().stream().map(this::toResponse).toList();
+    }
+
+    @Transactional
+    public DeliveryZoneResponse createZone(DeliveryZoneRequest request) {
+        DeliveryZone zone = new DeliveryZone();
+        apply(zone, request);
+        DeliveryZone saved = deliveryZoneRepository.save(zone);
+        rebuildAfterCommit();
+        return toResponse(saved);
+    }
+
+    @Transactional
+    public DeliveryZoneResponse updateZone(Long id, DeliveryZoneRequest request) {
+        DeliveryZone zone = deliveryZoneRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Zona no encontrada"));
+        apply(zone, request);
+        DeliveryZone saved = deliveryZoneRepository.save(zone);
+        rebuildAfterCommit();
+        return toResponse(saved);
+    }
+
+    @Transactional
+    public void deleteZone(Long id) {
+        if (!deliveryZoneRepository.existsById(id)) {
+            throw new RuntimeException("Zona no encontrada");
+        }
+        deliveryZoneRepository.deleteById(id);
+        rebuildAfterCommit();
+    }
+
+    /**
+     * Contadores del índice para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("zones", index.zoneCount());
+        stats.put("gridSize", gridSize);
+        stats.put("lookups", lookups.get());
+        stats.put("misses", misses.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("rebuildFailures", rebuildFailures.get());
+        return stats;
+    }
+
+    /**
+     * Lee todas las zonas activas y reemplaza el índice. Sincronizado para que una reconstrucción
+     * vieja no pise a una más nueva. Una zona que no se puede indexar se omite (y se registra) en vez de
+     * impedir que se actualicen las demás; si falla la lectura se conserva el índice anterior
+     */
+    synchronized void rebuild() {
+        try {
+            List<ZoneIndex.Zone> zones = new ArrayList<>();
+            for (DeliveryZone zone : deliveryZoneRepository.findByActivaTrueOrderById()) {
+                try {
+                    zones.add(toIndexZone(zone));
+                } catch (RuntimeException e) {
+                    log.error("Zona de reparto {} omitida del índice: {}", zone.getId(), e.getMessage());
+                }
+            }
+            index = new ZoneIndex(zones, gridSize);
+            rebuilds.incrementAndGet();
+            log.info("Índice de zonas de reparto reconstruido con {} zonas", zones.size());
+        } catch (RuntimeException e) {
+            rebuildFailures.incrementAndGet();
+            log.error("No se pudo reconstruir el índice de zonas de reparto; se conserva el anterior", e);
+        }
+    }
+
+    private static ZoneIndex.Zone toIndexZone(DeliveryZone zone) {
+        List<double[]> vertices = parse(zone.getPoligono());
+        double[] lats = new double[vertices.size()];
+        double[] lngs = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            lats[i] = vertices.get(i)[0];
+            lngs[i] = vertices.get(i)[1];
+        }
+        return new ZoneIndex.Zone(zone.getId(), zone.getNombre(), Money.toCents(zone.getCostoEnvio()), lats, lngs);
+    }
+
+    private void rebuildAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+
+    private void apply(DeliveryZone zone, DeliveryZoneRequest request) {
+        zone.setNombre(request.getNombre());
+        zone.setPoligono(format(request.getVertices()));
+        zone.setCostoEnvio(request.getCostoEnvio());
+        if (request.getActiva() != null) {
+            zone.setActiva(request.getActiva());
+        }
+    }
+
+    private DeliveryZoneResponse toResponse(DeliveryZone zone) {
+        List<DeliveryZoneRequest.Vertice> vertices = parse(zone.getPoligono()).stream()
+                .map(v -> new DeliveryZoneRequest.Vertice(v[0], v[1]))
+                .toList();
+        return new DeliveryZoneResponse(zone.getId(), zone.getNombre(), vertices, zone.getCostoEnvio(), zone.getActiva());
+    }
+
+    private static String format(List<DeliveryZoneRequest.Vertice> vertices) {
+        StringBuilder poligono = new StringBuilder();
+        for (DeliveryZoneRequest.Vertice vertice : vertices) {
+            if (!poligono.isEmpty()) {
+                poligono.append(';');
+            }
+            poligono.append(String.format(Locale.ROOT, "%s %s", vertice.getLatitud(), vertice.getLongitud()));
+        }
+        return poligono.toString();
+    }
+
+    private static List<double[]> parse(String poligono) {
+        List<double[]> vertices = new ArrayList<>();
+        for (String vertice : poligono.split(";")) {
+            String[] partes = vertice.trim().split("\\s+");
+            vertices.add(new double[]{Double.parseDouble(partes[0]), Double.parseDouble(partes[1])});
+        }
+        return vertices;
+    }
+
+    /**
+     * Zona encontrada para unas coordenadas (zonaId nulo si no hay zonas definidas)
+     */
+    public record Match(Long zonaId, String nombre, long costoEnvioCentavos) {
+        static final Match SIN_ZONAS = new Match(null, null, 0L);
+    }
+}
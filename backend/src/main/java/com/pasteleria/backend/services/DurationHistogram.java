@@ -0,0 +1,96 @@
+package com.pasteleria.backend.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-lineal de duraciones en segundos (al estilo HDR)
+ * Los valores chicos se cuentan exactos y desde ahí cada potencia de dos se divide en 32 cubetas,
+ * así el error relativo de un percentil queda por debajo del 3% con un arreglo fijo de contadores.
+ * Dos histogramas se combinan sumando cubeta a cubeta
+ */
+final class DurationHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Se registra hasta 2^22 segundos (unos 48 días); los valores mayores se cuentan en la última cubeta
+    private static final int MAX_BITS = 22;
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+    private static final int BUCKETS = (MAX_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void record(long seconds) {
+        counts.incrementAndGet(indexOf(Math.max(0, Math.min(seconds, MAX_VALUE))));
+    }
+
+    void mergeInto(long[] target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] += counts.get(i);
+        }
+    }
+
+    static long[] newCounts() {
+        return new long[BUCKETS];
+    }
+
+    static long total(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Valor del percentil indicado (0-100) sobre contadores ya combinados; -1 si no hay muestras
+     */
+    static long percentile(long[] counts, long total, double percentil) {
+        if (total == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < counts.length; i++) {
+            acumulado += counts[i];
+            if (acumulado >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length - 1);
+    }
+
+    /**
+     * Mayor valor registrado (con la resolución de su cubeta); -1 si no hay muestras
+     */
+    static long max(long[] counts) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return valueOf(i);
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Punto medio de la cubeta
+     */
+    private static long valueOf(int index) {
+        int block = index >>> SUB_BUCKET_BITS;
+        int offset = index & (SUB_BUCKETS - 1);
+        if (block == 0) {
+            return offset;
+        }
+        long width = 1L << (block - 1);
+        return ((SUB_BUCKETS + offset) << (block - 1)) + width / 2;
+    }
+}
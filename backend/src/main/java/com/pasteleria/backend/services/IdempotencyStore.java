@@ -0,0 +1,198 @@
+package com.pasteleria.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Almacén en memoria de claves de idempotencia (cabecera Idempotency-Key)
+ * Guarda el resultado de la primera ejecución durante una ventana de tiempo, con tamaño acotado.
+ * Las peticiones repetidas devuelven ese resultado y las concurrentes esperan al primer intento
+ */
+@Component
+public class IdempotencyStore {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long waitMillis;
+
+    // Orden de inserción; con TTL fijo coincide con el orden de expiración. Se accede bajo su propio lock
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public IdempotencyStore(
+            @Value("${orders.idempotency.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${orders.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${orders.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.maxEntries = maxEntries;
+        this.waitMillis = TimeUnit.SECONDS.toMillis(waitSeconds);
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por (ámbito, clave) dentro de la ventana.
+     * El fingerprint identifica el contenido de la petición: reutilizar la clave con otro contenido es un error
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(String scope, String key, Object fingerprint, Supplier<T> action) {
+        String id = scope + ":" + key;
+        Entry mine = new Entry(fingerprint, System.currentTimeMillis() + ttlMillis);
+
+        Entry existing;
+        synchronized (entries) {
+            long now = System.currentTimeMillis();
+            existing = entries.get(id);
+            if (existing != null && existing.isExpired(now)) {
+                entries.remove(id);
+                existing = null;
+            }
+            if (existing == null) {
+                // Una clave reutilizada (expirada o tras un intento fallido) se vuelve a insertar al final
+                entries.put(id, mine);
+                evictOverflow(now);
+            }
+        }
+
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                mismatches.incrementAndGet();
+                throw new IdempotencyKeyReuseException("La clave de idempotencia ya se usó con otro contenido");
+            }
+            if (existing.future.isDone()) {
+                replays.incrementAndGet();
+            } else {
+                waits.incrementAndGet();
+            }
+            return new Result<>((T) await(existing), true);
+        }
+
+        executions.incrementAndGet();
+        try {
+            T value = action.get();
+            mine.future.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException e) {
+            // Un intento fallido no se recuerda: el cliente puede reintentar con la misma clave
+            failures.incrementAndGet();
+            synchronized (entries) {
+                entries.remove(id, mine);
+            }
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.future.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("La petición con esta clave aún se está procesando");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("La petición con esta clave aún se está procesando");
+        } catch (ExecutionException e) {
+            // Quien esperaba recibe el mismo error que el primer intento
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Quita las entradas expiradas y, si se supera el máximo, las más antiguas ya resueltas.
+     * Las que siguen en curso no se desalojan (otros intentos las esperan) pero tampoco frenan el desalojo:
+     * se saltan, y son a lo sumo tantas como peticiones simultáneas. Se llama con el lock de entries
+     */
+    private void evictOverflow(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            boolean expired = entry.isExpired(now);
+            if (!expired && entries.size() <= maxEntries) {
+                break;
+            }
+            if (expired || entry.future.isDone()) {
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Contadores del almacén para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (entries) {
+            evictOverflow(System.currentTimeMillis());
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMinutes", TimeUnit.MILLISECONDS.toMinutes(ttlMillis));
+        stats.put("executions", executions.get());
+        stats.put("replays", replays.get());
+        stats.put("waits", waits.get());
+        stats.put("mismatches", mismatches.get());
+        stats.put("failures", failures.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private static final class Entry {
+        private final Object fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Entry(Object fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    /**
+     * Resultado de una ejecución; replayed indica que se devolvió un resultado ya guardado
+     */
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * La clave se reutilizó con un contenido distinto al de la petición original
+     */
+    public static class IdempotencyKeyReuseException extends RuntimeException {
+        public IdempotencyKeyReuseException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * El primer intento con la clave sigue en curso tras el tiempo máximo de espera
+     */
+    public static class IdempotencyKeyInProgressException extends RuntimeException {
+        public IdempotencyKeyInProgressException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.KitchenBoardResponse;
+import com.pasteleria.backend.events.OrderCreatedEvent;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vista en memoria de los pedidos activos (no ENTREGADO ni CANCELADO), indexada por estado
+ * Se reconstruye desde la base al iniciar y luego se mantiene con los eventos de creación y cambio de estado,
+ * de modo que el tablero de cocina se sirve sin consultar la base
+ */
+@Component
+public class KitchenBoard {
+
+    // Un cambio sin creación después de este lapso ya no espera a nadie (p. ej. un pedido ya quitado)
+    private static final Duration PENDING_TTL = Duration.ofMinutes(5);
+
+    private static final Comparator<Entry> BY_DESDE =
+            Comparator.comparing((Entry e) -> e.desde).thenComparing(e -> e.id);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Pedido -> entrada actual; cada columna se ordena por llegada al estado (el más antiguo primero)
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final EnumMap<OrderStatus, TreeMap<Entry, Entry>> columns = new EnumMap<>(OrderStatus.class);
+
+    // Último cambio de estado de cada pedido visto mientras se reconstruye; al combinar con la carga
+    // gana la versión más nueva, así una fila leída antes del cambio no se instala con datos viejos
+    private Map<Long, OrderStatusChangedEvent> seenDuringRebuild;
+
+    // Último cambio de estado de pedidos que aún no están en la vista: el evento de creación se entrega tras
+    // el commit en el hilo que creó el pedido, y un cambio confirmado por otro hilo puede llegar antes.
+    // Al llegar la creación se aplica este estado en vez de instalar un PENDIENTE viejo
+    private final Map<Long, OrderStatusChangedEvent> pending = new HashMap<>();
+
+    public KitchenBoard() {
+        for (OrderStatus estado : OrderStatus.activos()) {
+            columns.put(estado, new TreeMap<>(BY_DESDE));
+        }
+    }
+
+    /**
+     * Carga los pedidos activos desde la base cuando la aplicación terminó de iniciar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            seenDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<OrderRepository.ActiveOrder> activos = orderRepository.findActiveOrders(OrderStatus.activos());
+
+        lock.writeLock().lock();
+        try {
+            for (OrderRepository.ActiveOrder order : activos) {
+                Entry loaded = new Entry(order.getId(), order.getUsuarioId(), order.getEstado(), order.getTotal(),
+                        order.getFecha(), order.getFechaActualizacion(), order.getVersion());
+                pending.remove(order.getId());
+                OrderStatusChangedEvent seen = seenDuringRebuild.get(order.getId());
+                if (seen != null && versionOf(seen) > loaded.version) {
+                    if (seen.estado().isFinal()) {
+                        continue;
+                    }
+                    loaded = new Entry(loaded.id, loaded.usuarioId, seen.estado(), loaded.total,
+                            loaded.fecha, seen.fecha(), seen.version());
+                }
+                apply(loaded);
+            }
+            seenDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Incorpora un pedido recién creado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(OrderCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Entry created = new Entry(event.pedidoId(), event.usuarioId(), OrderStatus.PENDIENTE, event.total(),
+                    event.fecha(), event.fecha(), 0L);
+            OrderStatusChangedEvent early = pending.remove(event.pedidoId());
+            if (early != null) {
+                if (early.estado().isFinal()) {
+                    return;
+                }
+                created = new Entry(created.id, created.usuarioId, early.estado(), created.total,
+                        created.fecha, early.fecha(), early.version());
+            }
+            apply(created);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mueve el pedido a la columna de su nuevo estado, o lo quita si quedó finalizado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (seenDuringRebuild != null) {
+                seenDuringRebuild.merge(event.pedidoId(), event,
+                        (previo, nuevo) -> versionOf(nuevo) > versionOf(previo) ? nuevo : previo);
+            }
+            Entry current = entries.get(event.pedidoId());
+            if (current == null) {
+                // El evento de creación aún no llegó (o la vista se está reconstruyendo): se guarda para aplicarlo
+                remember(event);
+                return;
+            }
+            if (event.estado().isFinal()) {
+                if (current.version < versionOf(event)) {
+                    remove(event.pedidoId());
+                }
+                return;
+            }
+            apply(new Entry(current.id, current.usuarioId, event.estado(), current.total,
+                    current.fecha, event.fecha(), event.version()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tablero con cantidades, antigüedad y hasta 'limite' pedidos por columna
+     */
+    public KitchenBoardResponse getBoard(int limite) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<KitchenBoardResponse.Columna> resultado = new ArrayList<>(columns.size());
+        int total;
+
+        lock.readLock().lock();
+        try {
+            total = entries.size();
+            for (Map.Entry<OrderStatus, TreeMap<Entry, Entry>> column : columns.entrySet()) {
+                TreeMap<Entry, Entry> pedidos = column.getValue();
+                long maximo = pedidos.isEmpty() ? 0 : secondsSince(pedidos.firstKey().desde, ahora);
+                List<KitchenBoardResponse.Pedido> vista = new ArrayList<>(Math.min(limite, pedidos.size()));
+                Iterator<Entry> it = pedidos.keySet().iterator();
+                while (vista.size() < limite && it.hasNext()) {
+                    vista.add(it.next().toPedido(ahora));
+                }
+                resultado.add(new KitchenBoardResponse.Columna(column.getKey(), pedidos.size(), maximo, vista));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new KitchenBoardResponse(ahora, total, resultado);
+    }
+
+    /**
+     * Inserta o reemplaza la entrada; las versiones viejas (eventos fuera de orden) se ignoran
+     */
+    private void apply(Entry entry) {
+        Entry current = entries.get(entry.id);
+        if (current != null) {
+            if (current.version > entry.version || (current.version == entry.version && current.estado == entry.estado)) {
+                return;
+            }
+            columns.get(current.estado).remove(current);
+        }
+        entries.put(entry.id, entry);
+        columns.get(entry.estado).put(entry, entry);
+    }
+
+    private void remove(Long id) {
+        Entry current = entries.remove(id);
+        if (current != null) {
+            columns.get(current.estado).remove(current);
+        }
+    }
+
+    private void remember(OrderStatusChangedEvent event) {
+        LocalDateTime limite = LocalDateTime.now().minus(PENDING_TTL);
+        pending.values().removeIf(previo -> previo.fecha() == null || previo.fecha().isBefore(limite));
+        pending.merge(event.pedidoId(), event,
+                (previo, nuevo) -> versionOf(nuevo) > versionOf(previo) ? nuevo : previo);
+    }
+
+    private static long versionOf(OrderStatusChangedEvent event) {
+        return event.version() != null ? event.version() : 0L;
+    }
+
+    private static long secondsSince(LocalDateTime desde, LocalDateTime ahora) {
+        return Math.max(0, Duration.between(desde, ahora).getSeconds());
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final Long usuarioId;
+        private final OrderStatus estado;
+        private final BigDecimal total;
+        private final LocalDateTime fecha;
+        private final LocalDateTime desde;
+        private final long version;
+
+        private Entry(Long id, Long usuarioId, OrderStatus estado, BigDecimal total,
+                      LocalDateTime fecha, LocalDateTime desde, Long version) {
+            this.id = id;
+            this.usuarioId = usuarioId;
+            this.estado = estado;
+            this.total = total;
+            this.fecha = fecha;
+            this.desde = desde != null ? desde : fecha;
+            this.version = version != null ? version : 0L;
+        }
+
+        private KitchenBoardResponse.Pedido toPedido(LocalDateTime ahora) {
+            return new KitchenBoardResponse.Pedido(id, usuarioId, total, fecha, desde, secondsSince(desde, ahora));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.repositories.ArchivedOrderRepository;
+import com.pasteleria.backend.repositories.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Archivo de pedidos finalizados
+ * Mueve por lotes los pedidos entregados o cancelados con cierta antigüedad a las tablas de archivo,
+ * para que las tablas vivas (y sus consultas) se mantengan pequeñas. Cada lote es una transacción corta
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final Set<OrderStatus> ESTADOS_ARCHIVABLES = EnumSet.of(OrderStatus.ENTREGADO, OrderStatus.CANCELADO);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Cota superior de la fecha de cualquier pedido archivado (nula si el archivo está vacío).
+    // Permite a las lecturas saltarse el archivo cuando la página pedida es más reciente
+    private volatile LocalDateTime newestArchivedFecha;
+
+    private final AtomicLong archivedTotal = new AtomicLong();
+    private volatile LocalDateTime lastRun;
+    private volatile long lastRunMoved;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Carga la fecha más reciente del archivo al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWatermark() {
+        LocalDateTime newest = archivedOrderRepository.findNewestFecha();
+        if (newest != null) {
+            raiseWatermark(newest);
+        }
+    }
+
+    /**
+     * Ejecución programada del archivo (por defecto, todos los días a las 3:30)
+     */
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Archiva todos los pedidos finalizados anteriores al corte, lote por lote
+     */
+    public synchronized Map<String, Object> run() {
+        LocalDateTime corte = LocalDateTime.now().minusDays(minAgeDays);
+        // Se sube antes de mover nada: así ninguna lectura se salta un pedido recién archivado
+        raiseWatermark(corte);
+
+        long inicio = System.nanoTime();
+        long movidos = 0;
+        int lotes = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(corte));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            movidos += moved;
+            lotes++;
+            archivedTotal.addAndGet(moved);
+        }
+
+        lastRun = LocalDateTime.now();
+        lastRunMoved = movidos;
+        if (movidos > 0) {
+            log.info("Archivo de pedidos: {} pedidos movidos en {} lotes", movidos, lotes);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("corte", corte);
+        result.put("pedidos", movidos);
+        result.put("lotes", lotes);
+        result.put("duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+        return result;
+    }
+
+    private int archiveBatch(LocalDateTime corte) {
+        List<Long> ids = orderRepository.findIdsToArchive(ESTADOS_ARCHIVABLES, corte, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        archivedOrderRepository.copyOrders(ids, ahora);
+        archivedOrderRepository.copyItems(ids);
+        archivedOrderRepository.deleteLiveAssignments(ids);
+        archivedOrderRepository.deleteLiveItems(ids);
+        return archivedOrderRepository.deleteLiveOrders(ids);
+    }
+
+    private synchronized void raiseWatermark(LocalDateTime fecha) {
+        if (newestArchivedFecha == null || fecha.isAfter(newestArchivedFecha)) {
+            newestArchivedFecha = fecha;
+        }
+    }
+
+    /**
+     * Fecha a partir de la cual no hay pedidos archivados (nula si el archivo está vacío)
+     */
+    public LocalDateTime getNewestArchivedFecha() {
+        return newestArchivedFecha;
+    }
+
+    /**
+     * Contadores del archivo para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("minAgeDays", minAgeDays);
+        stats.put("batchSize", batchSize);
+        stats.put("archivedSinceStart", archivedTotal.get());
+        stats.put("lastRun", lastRun);
+        stats.put("lastRunMoved", lastRunMoved);
+        stats.put("newestArchivedFecha", newestArchivedFecha);
+        return stats;
+    }
+}
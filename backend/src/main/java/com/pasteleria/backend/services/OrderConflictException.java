@@ -0,0 +1,12 @@
+package com.pasteleria.backend.services;
+
+/**
+ * El pedido cambió (estado o versión) entre la lectura del cliente y la actualización.
+ * Los controladores la responden con 409 Conflict
+ */
+public class OrderConflictException extends RuntimeException {
+
+    public OrderConflictException(String message) {
+        super(message);
+    }
+}
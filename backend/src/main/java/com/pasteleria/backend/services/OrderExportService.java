@@ -0,0 +1,208 @@
+package com.pasteleria.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasteleria.backend.dto.OrderExportRow;
+import com.pasteleria.backend.models.ArchivedOrder;
+import com.pasteleria.backend.models.DeliveryAssignment;
+import com.pasteleria.backend.models.Order;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.repositories.ArchivedOrderRepository;
+import com.pasteleria.backend.repositories.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de exportación de pedidos
+ * Recorre los pedidos con un cursor JDBC y los escribe fila por fila, con memoria constante
+ */
+@Service
+public class OrderExportService {
+
+    // Cada cuántas filas se vacía el contexto de persistencia y se envía lo escrito al cliente
+    private static final int FLUSH_EVERY = 500;
+
+    private static final String CSV_HEADER =
+            "id,fecha,estado,total,usuarioId,nombreCliente,direccionEntrega,deliveryId,nombreDelivery,fechaEntrega";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * Escribe los pedidos del rango [desde, hasta) y estado opcional en el formato indicado
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, Format format, LocalDateTime desde, LocalDateTime hasta, OrderStatus estado)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        // Los pedidos viejos que siguen activos no se archivan, así que ambos cursores (ya ordenados)
+        // se intercalan por (fecha, id) para mantener el orden de la exportación
+        long count;
+        try (Stream<ArchivedOrder> archived = archivedOrderRepository.streamForExport(desde, hasta, estado);
+             Stream<Order> orders = orderRepository.streamForExport(desde, hasta, estado)) {
+            count = writeRows(writer, format,
+                    new MergedRows(archived.map(this::toRow).iterator(), orders.map(this::toRow).iterator()), 0);
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeRows(Writer writer, Format format, Iterator<OrderExportRow> rows, long count) throws IOException {
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            if (format == Format.CSV) {
+                writeCsv(writer, row);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+
+            if (++count % FLUSH_EVERY == 0) {
+                // Desliga las entidades ya exportadas para que el heap no crezca con el total
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    private OrderExportRow toRow(Order order) {
+        DeliveryAssignment assignment = order.getDeliveryAssignment();
+        return new OrderExportRow(
+                order.getId(),
+                order.getFecha(),
+                order.getEstado(),
+                order.getTotal(),
+                order.getUsuario().getId(),
+                order.getUsuario().getNombre(),
+                order.getDireccionEntrega(),
+                assignment != null ? assignment.getDelivery().getId() : null,
+                assignment != null ? assignment.getDelivery().getNombre() : null,
+                assignment != null ? assignment.getFechaEntrega() : null
+        );
+    }
+
+    private OrderExportRow toRow(ArchivedOrder order) {
+        User delivery = order.getDelivery();
+        return new OrderExportRow(
+                order.getId(),
+                order.getFecha(),
+                order.getEstado(),
+                order.getTotal(),
+                order.getUsuario().getId(),
+                order.getUsuario().getNombre(),
+                order.getDireccionEntrega(),
+                delivery != null ? delivery.getId() : null,
+                delivery != null ? delivery.getNombre() : null,
+                order.getFechaEntrega()
+        );
+    }
+
+    /**
+     * Intercala dos secuencias de filas ordenadas por (fecha, id) sin cargarlas en memoria
+     */
+    private static final class MergedRows implements Iterator<OrderExportRow> {
+        private static final Comparator<OrderExportRow> ORDER =
+                Comparator.comparing(OrderExportRow::getFecha).thenComparing(OrderExportRow::getId);
+
+        private final Iterator<OrderExportRow> left;
+        private final Iterator<OrderExportRow> right;
+        private OrderExportRow nextLeft;
+        private OrderExportRow nextRight;
+
+        private MergedRows(Iterator<OrderExportRow> left, Iterator<OrderExportRow> right) {
+            this.left = left;
+            this.right = right;
+            this.nextLeft = left.hasNext() ? left.next() : null;
+            this.nextRight = right.hasNext() ? right.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLeft != null || nextRight != null;
+        }
+
+        @Override
+        public OrderExportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            OrderExportRow row;
+            if (nextRight == null || (nextLeft != null && ORDER.compare(nextLeft, nextRight) <= 0)) {
+                row = nextLeft;
+                nextLeft = left.hasNext() ? left.next() : null;
+            } else {
+                row = nextRight;
+                nextRight = right.hasNext() ? right.next() : null;
+            }
+            return row;
+        }
+    }
+
+    private static void writeCsv(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(csv(row.getFecha()));
+        writer.write(',');
+        writer.write(csv(row.getEstado()));
+        writer.write(',');
+        writer.write(csv(row.getTotal() != null ? row.getTotal().toPlainString() : null));
+        writer.write(',');
+        writer.write(csv(row.getUsuarioId()));
+        writer.write(',');
+        writer.write(csv(row.getNombreCliente()));
+        writer.write(',');
+        writer.write(csv(row.getDireccionEntrega()));
+        writer.write(',');
+        writer.write(csv(row.getDeliveryId()));
+        writer.write(',');
+        writer.write(csv(row.getNombreDelivery()));
+        writer.write(',');
+        writer.write(csv(row.getFechaEntrega()));
+    }
+
+    /**
+     * Escapa un valor CSV (RFC 4180): entre comillas si contiene separadores, comillas o saltos de línea
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,299 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.OrderIngestionResponse;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.models.Order;
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.repositories.OrderRepository;
+import com.pasteleria.backend.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingesta asíncrona de pedidos
+ * Los pedidos validados entran a una cola acotada; un único escritor los guarda por lotes
+ * dentro de una sola transacción (group commit), liberando al cliente con un handle consultable
+ */
+@Service
+public class OrderIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionService.class);
+
+    static final String EN_COLA = "EN_COLA";
+    static final String CREADO = "CREADO";
+    static final String RECHAZADO = "RECHAZADO";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.ingestion.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${orders.ingestion.batch-size:50}")
+    private int batchSize;
+
+    @Value("${orders.ingestion.result-ttl-minutes:60}")
+    private long resultTtlMinutes;
+
+    private BlockingQueue<Ingestion> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        writer = new Thread(this::drainLoop, "order-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // El escritor termina de guardar lo que ya estaba en cola antes de detenerse
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Valida el pedido y lo encola para el usuario actual.
+     * Lanza IngestionQueueFullException si la cola está llena
+     */
+    public OrderIngestionResponse submit(OrderRequest request) {
+        User currentUser = authService.getCurrentUser();
+
+        // Validación previa contra el catálogo cacheado, sin ocupar una conexión
+        Map<Long, Integer> cantidades = orderService.mergeItems(request.getItems());
+        for (Long productoId : cantidades.keySet()) {
+            Product product;
+            try {
+                product = productService.getProductById(productoId);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Producto no encontrado");
+            }
+            if (!product.getDisponible()) {
+                throw new RuntimeException("El producto " + product.getNombre() + " no está disponible");
+            }
+        }
+        // Faltan coordenadas habiendo zonas: se rechaza aquí y no al procesar la cola
+        orderService.checkCoordinates(request);
+
+        String handle = UUID.randomUUID().toString();
+        Tracked entry = new Tracked(currentUser.getId());
+        tracked.put(handle, entry);
+        if (!queue.offer(new Ingestion(handle, currentUser.getId(), request, cantidades))) {
+            tracked.remove(handle);
+            throttled.incrementAndGet();
+            throw new IngestionQueueFullException("Hay demasiados pedidos en proceso, intenta nuevamente en unos segundos");
+        }
+        accepted.incrementAndGet();
+        return entry.toResponse(handle);
+    }
+
+    /**
+     * Estado de un pedido encolado; solo visible para el usuario que lo envió
+     */
+    public OrderIngestionResponse getStatus(String handle) {
+        Tracked entry = tracked.get(handle);
+        if (entry == null || !entry.userId.equals(authService.getCurrentUser().getId())) {
+            throw new RuntimeException("Pedido en cola no encontrado");
+        }
+        return entry.toResponse(handle);
+    }
+
+    /**
+     * Contadores de la cola para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueSize", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("batchSize", batchSize);
+        stats.put("accepted", accepted.get());
+        stats.put("throttled", throttled.get());
+        stats.put("created", created.get());
+        stats.put("rejected", rejected.get());
+        stats.put("batches", batches.get());
+        stats.put("fallbacks", fallbacks.get());
+        stats.put("trackedHandles", tracked.size());
+        return stats;
+    }
+
+    private void drainLoop() {
+        long nextPurge = System.currentTimeMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                Ingestion first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<Ingestion> batch = new ArrayList<>(batchSize);
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                }
+                if (System.currentTimeMillis() >= nextPurge) {
+                    purgeExpired();
+                    nextPurge = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error en el escritor de pedidos asíncronos", e);
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote en una sola transacción. Si el commit falla se reintenta pedido por pedido,
+     * para que un solo pedido problemático no arrastre al resto
+     */
+    private void writeBatch(List<Ingestion> batch) {
+        batches.incrementAndGet();
+        try {
+            Map<String, Object> outcomes = transactionTemplate.execute(status -> persist(batch));
+            complete(outcomes);
+        } catch (RuntimeException e) {
+            fallbacks.incrementAndGet();
+            log.warn("Falló el lote de {} pedidos, se guardan de a uno: {}", batch.size(), e.getMessage());
+            for (Ingestion ingestion : batch) {
+                try {
+                    complete(transactionTemplate.execute(status -> persist(List.of(ingestion))));
+                } catch (RuntimeException single) {
+                    complete(Map.of(ingestion.handle(), single));
+                }
+            }
+        }
+    }
+
+    /**
+     * Arma y guarda los pedidos del lote; devuelve por handle el ID creado o el error de validación
+     */
+    private Map<String, Object> persist(List<Ingestion> batch) {
+        Set<Long> productIds = new HashSet<>();
+        batch.forEach(ingestion -> productIds.addAll(ingestion.cantidades().keySet()));
+        Map<Long, Product> productos = orderService.findProducts(productIds);
+
+        Map<String, Object> outcomes = new LinkedHashMap<>();
+        Map<String, Order> orders = new LinkedHashMap<>();
+        for (Ingestion ingestion : batch) {
+            try {
+                User usuario = userRepository.getReferenceById(ingestion.userId());
+                Order order = orderService.buildOrder(usuario, ingestion.request(), ingestion.cantidades(), productos);
+                orderService.reserveCapacity(order, ingestion.request(), ingestion.cantidades(), productos);
+                orders.put(ingestion.handle(), order);
+            } catch (RuntimeException e) {
+                outcomes.put(ingestion.handle(), e);
+            }
+        }
+        orderRepository.saveAll(orders.values());
+        orders.forEach((handle, order) -> {
+            orderService.publishCreated(order);
+            outcomes.put(handle, order.getId());
+        });
+        return outcomes;
+    }
+
+    private void complete(Map<String, Object> outcomes) {
+        outcomes.forEach((handle, outcome) -> {
+            Tracked entry = tracked.get(handle);
+            if (entry == null) {
+                return;
+            }
+            if (outcome instanceof Long orderId) {
+                created.incrementAndGet();
+                entry.finish(CREADO, orderId, null);
+            } else {
+                rejected.incrementAndGet();
+                entry.finish(RECHAZADO, null, ((RuntimeException) outcome).getMessage());
+            }
+        });
+    }
+
+    private void purgeExpired() {
+        long limit = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(resultTtlMinutes);
+        tracked.values().removeIf(entry -> entry.finishedAt != 0 && entry.finishedAt < limit);
+    }
+
+    private record Ingestion(String handle, Long userId, OrderRequest request, Map<Long, Integer> cantidades) {
+    }
+
+    private static final class Tracked {
+        private final Long userId;
+        private volatile String estado = EN_COLA;
+        private volatile Long pedidoId;
+        private volatile String mensaje;
+        private volatile long finishedAt;
+
+        private Tracked(Long userId) {
+            this.userId = userId;
+        }
+
+        private void finish(String estado, Long pedidoId, String mensaje) {
+            this.pedidoId = pedidoId;
+            this.mensaje = mensaje;
+            this.finishedAt = System.currentTimeMillis();
+            this.estado = estado;
+        }
+
+        private OrderIngestionResponse toResponse(String handle) {
+            String current = estado;
+            return new OrderIngestionResponse(handle, current, pedidoId, mensaje);
+        }
+    }
+
+    /**
+     * La cola de ingesta está llena; el cliente debe reintentar más tarde
+     */
+    public static class IngestionQueueFullException extends RuntimeException {
+        public IngestionQueueFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.pasteleria.backend.services;
 
+import com.pasteleria.backend.dto.BulkStatusResponse;
+import com.pasteleria.backend.dto.CursorPage;
 import com.pasteleria.backend.dto.OrderRequest;
 import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.events.OrderCreatedEvent;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
 import com.pasteleria.backend.models.*;
+import com.pasteleria.backend.repositories.ArchivedOrderRepository;
 import com.pasteleria.backend.repositories.OrderRepository;
 import com.pasteleria.backend.repositories.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,12 +44,45 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private DailyStockService dailyStockService;
+
+    @Autowired
+    private DeliverySlotService deliverySlotService;
+
+    @Autowired
+    private DeliveryEtaService deliveryEtaService;
+
+    @Autowired
+    private DeliveryZoneService deliveryZoneService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${orders.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${orders.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${orders.bulk.max-size:500}")
+    private int maxBulkSize;
+
+    // Clave inicial del cursor: cualquier pedido es anterior a ella
+    private static final LocalDateTime CURSOR_START_FECHA = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     /**
      * Crea un nuevo pedido
      */
@@ -36,115 +90,395 @@ public class OrderService {
     public OrderResponse createOrder(OrderRequest request) {
         User currentUser = authService.getCurrentUser();
 
-        // Crear el pedido
+        // Resolver todos los productos en una sola consulta
+        Map<Long, Integer> cantidades = mergeItems(request.getItems());
+        Map<Long, Product> productos = findProducts(cantidades.keySet());
+
+        Order order = buildOrder(currentUser, request, cantidades, productos);
+        reserveCapacity(order, request, cantidades, productos);
+
+        // Guardar pedido
+        Order savedOrder = orderRepository.save(order);
+        publishCreated(savedOrder);
+
+        return convertToOrderResponse(savedOrder);
+    }
+
+    /**
+     * Carga los productos indicados en una sola consulta, indexados por ID
+     */
+    Map<Long, Product> findProducts(Collection<Long> ids) {
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * Arma un pedido PENDIENTE con sus items y total, validando que los productos existan y estén disponibles
+     */
+    Order buildOrder(User usuario, OrderRequest request, Map<Long, Integer> cantidades, Map<Long, Product> productos) {
         Order order = new Order();
-        order.setUsuario(currentUser);
+        order.setUsuario(usuario);
         order.setDireccionEntrega(request.getDireccionEntrega());
         order.setNotas(request.getNotas());
         order.setEstado(OrderStatus.PENDIENTE);
 
-        // Calcular total y agregar items
-        BigDecimal total = BigDecimal.ZERO;
+        // Calcular total y agregar items (en centavos; se convierte a BigDecimal una vez por monto)
+        long total = 0L;
 
-        for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductoId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            Product product = productos.get(linea.getKey());
+            if (product == null) {
+                throw new RuntimeException("Producto no encontrado");
+            }
 
             if (!product.getDisponible()) {
                 throw new RuntimeException("El producto " + product.getNombre() + " no está disponible");
             }
 
+            long subtotal = Money.multiply(Money.toCents(product.getPrecio()), linea.getValue());
+
             OrderItem orderItem = new OrderItem();
             orderItem.setProducto(product);
-            orderItem.setCantidad(itemRequest.getCantidad());
+            orderItem.setCantidad(linea.getValue());
             orderItem.setPrecioUnitario(product.getPrecio());
-            orderItem.setSubtotal(product.getPrecio().multiply(BigDecimal.valueOf(itemRequest.getCantidad())));
+            orderItem.setSubtotal(Money.toBigDecimal(subtotal));
 
             order.addItem(orderItem);
-            total = total.add(orderItem.getSubtotal());
+            total = Money.add(total, subtotal);
         }
 
-        order.setTotal(total);
+        // El costo de envío sale del índice de zonas en memoria: no agrega consultas al checkout
+        if (checkCoordinates(request)) {
+            DeliveryZoneService.Match zona = deliveryZoneService.findZone(request.getLatitud(), request.getLongitud());
+            if (zona == null) {
+                throw new RuntimeException("La dirección está fuera de la zona de reparto");
+            }
+            order.setLatitud(request.getLatitud());
+            order.setLongitud(request.getLongitud());
+            order.setZonaId(zona.zonaId());
+            order.setCostoEnvio(Money.toBigDecimal(zona.costoEnvioCentavos()));
+            total = Money.add(total, zona.costoEnvioCentavos());
+        }
 
-        // Guardar pedido
-        Order savedOrder = orderRepository.save(order);
+        order.setTotal(Money.toBigDecimal(total));
+        return order;
+    }
 
-        return convertToOrderResponse(savedOrder);
+    /**
+     * Exige ambas coordenadas si llega alguna o si hay zonas de reparto definidas (sin ellas el pedido
+     * evitaría la zona y su costo de envío). Devuelve si el pedido trae coordenadas
+     */
+    boolean checkCoordinates(OrderRequest request) {
+        boolean informadas = request.getLatitud() != null || request.getLongitud() != null;
+        if (!informadas && !deliveryZoneService.hasZones()) {
+            return false;
+        }
+        if (request.getLatitud() == null || request.getLongitud() == null) {
+            throw new RuntimeException("Debe indicar latitud y longitud");
+        }
+        return true;
     }
 
     /**
-     * Obtiene todos los pedidos de un usuario
+     * Reserva la franja de entrega elegida y el stock del día de entrega (o de hoy, sin franja).
+     * Reserva todo o nada; si la transacción no se confirma, la franja y las unidades se devuelven
      */
-    public List<OrderResponse> getOrdersByUser() {
+    void reserveCapacity(Order order, OrderRequest request, Map<Long, Integer> cantidades, Map<Long, Product> productos) {
+        LocalDateTime franja = request.getFranjaInicio();
+        if (franja != null) {
+            DeliverySlotService.Slot slot = deliverySlotService.book(franja);
+            order.setFranjaInicio(slot.inicio());
+            order.setFranjaFin(slot.fin());
+        }
+
+        LocalDate dia = franja != null ? franja.toLocalDate() : order.getFecha().toLocalDate();
+        Long agotado = dailyStockService.reserve(dia, cantidades);
+        if (agotado != null) {
+            if (franja != null) {
+                deliverySlotService.release(franja);
+            }
+            throw new RuntimeException("No queda stock suficiente de " + productos.get(agotado).getNombre() + " para el día");
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        dailyStockService.release(dia, cantidades);
+                        if (franja != null) {
+                            deliverySlotService.release(franja);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Obtiene una página de los pedidos del usuario actual, del más reciente al más antiguo.
+     * Incluye el historial archivado: se combina con los pedidos vivos cuando la página llega a esas fechas
+     */
+    public CursorPage<OrderResponse> getOrdersByUser(String cursor, Integer size) {
         User currentUser = authService.getCurrentUser();
-        List<Order> orders = orderRepository.findByUsuarioOrderByFechaDesc(currentUser);
-        return orders.stream()
-                .map(this::convertToOrderResponse)
-                .collect(Collectors.toList());
+        return keysetPage(cursor, size, (fecha, id, limit) -> {
+            List<OrderRepository.OrderKey> live = orderRepository.findKeysByUsuarioBefore(currentUser, fecha, id, limit);
+            // Si la página viva está completa y es más reciente que todo el archivo, no hace falta consultarlo
+            LocalDateTime newestArchived = orderArchiveService.getNewestArchivedFecha();
+            if (newestArchived == null || (live.size() >= limit.getPageSize()
+                    && live.get(live.size() - 1).getFecha().isAfter(newestArchived))) {
+                return live;
+            }
+            List<OrderRepository.OrderKey> archived =
+                    archivedOrderRepository.findKeysByUsuarioBefore(currentUser, fecha, id, limit);
+            return mergeKeys(live, archived, limit.getPageSize());
+        });
     }
 
     /**
-     * Obtiene todos los pedidos (Solo ADMIN)
+     * Obtiene una página de todos los pedidos (Solo ADMIN)
      */
-    public List<OrderResponse> getAllOrders() {
-        List<Order> orders = orderRepository.findAllByOrderByFechaDesc();
-        return orders.stream()
-                .map(this::convertToOrderResponse)
-                .collect(Collectors.toList());
+    public CursorPage<OrderResponse> getAllOrders(String cursor, Integer size) {
+        return keysetPage(cursor, size, orderRepository::findKeysBefore);
     }
 
     /**
      * Obtiene un pedido por ID
      */
     public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        OrderResponse order = orderRepository.findWithDetailsById(id)
+                .map(this::convertToOrderResponse)
+                .or(() -> archivedOrderRepository.findWithDetailsById(id).map(this::convertArchivedOrder))
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
         
         // Verificar que el usuario actual pueda ver este pedido
         User currentUser = authService.getCurrentUser();
-        if (currentUser.getRol() == Role.CLIENTE && !order.getUsuario().getId().equals(currentUser.getId())) {
+        if (currentUser.getRol() == Role.CLIENTE && !order.getUsuarioId().equals(currentUser.getId())) {
             throw new RuntimeException("No tienes permiso para ver este pedido");
         }
 
-        return convertToOrderResponse(order);
+        return order;
     }
 
     /**
-     * Actualiza el estado de un pedido
+     * Convierte una lista de IDs en respuestas cargando todos los pedidos en una sola consulta.
+     * Los IDs que ya no están en la tabla viva se buscan en el archivo. Respeta el orden de los IDs recibidos
      */
-    @Transactional
-    public OrderResponse updateOrderStatus(Long id, OrderStatus newStatus) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+    public List<OrderResponse> getOrderResponses(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, OrderResponse> orders = orderRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, this::convertToOrderResponse));
+        if (orders.size() < ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !orders.containsKey(id)).toList();
+            archivedOrderRepository.findByIdIn(missing)
+                    .forEach(archived -> orders.put(archived.getId(), convertArchivedOrder(archived)));
+        }
+        return ids.stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
-        // Validar transiciones de estado
-        validateStatusTransition(order.getEstado(), newStatus);
+    /**
+     * Actualiza el estado de un pedido si sigue activo y en la versión esperada.
+     * Lanza OrderConflictException si otra actualización lo cambió antes
+     */
+    @Transactional
+    public OrderResponse updateOrderStatus(Long id, OrderStatus newStatus, Long expectedVersion) {
+        if (expectedVersion == null) {
+            throw new RuntimeException("La versión del pedido es obligatoria");
+        }
+        int updated = orderRepository.updateEstadoIf(
+                id, OrderStatus.activos(), expectedVersion, newStatus, LocalDateTime.now());
+        if (updated == 0) {
+            throw statusUpdateFailure(id, expectedVersion);
+        }
+        OrderResponse order = getOrderById(id);
+        publishStatusChange(order);
+        return order;
+    }
 
-        order.setEstado(newStatus);
-        Order updatedOrder = orderRepository.save(order);
+    /**
+     * Publica la creación de un pedido ya guardado; los listeners lo reciben tras el commit
+     */
+    void publishCreated(Order order) {
+        List<OrderCreatedEvent.Item> items = order.getItems().stream()
+                .map(item -> new OrderCreatedEvent.Item(item.getProducto().getId(), item.getCantidad(), item.getSubtotal()))
+                .toList();
+        eventPublisher.publishEvent(new OrderCreatedEvent(
+                order.getId(), order.getUsuario().getId(), order.getTotal(), order.getFecha(), items));
+    }
 
-        return convertToOrderResponse(updatedOrder);
+    /**
+     * Publica el cambio de estado de un pedido; los listeners lo reciben tras el commit
+     */
+    void publishStatusChange(OrderResponse order) {
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getId(), order.getUsuarioId(), order.getEstado(), order.getVersion(), LocalDateTime.now()));
     }
 
     /**
-     * Obtiene pedidos por estado
+     * Cambia el estado de varios pedidos en una sola transacción: se bloquean y validan todos con una consulta
+     * y se actualizan los válidos con una sola sentencia. Devuelve el resultado por pedido
      */
-    public List<OrderResponse> getOrdersByStatus(OrderStatus status) {
-        List<Order> orders = orderRepository.findByEstadoOrderByFechaDesc(status);
-        return orders.stream()
-                .map(this::convertToOrderResponse)
+    @Transactional
+    public BulkStatusResponse updateOrderStatuses(List<Long> ids, OrderStatus newStatus) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > maxBulkSize) {
+            throw new IllegalArgumentException("Se pueden actualizar como máximo " + maxBulkSize + " pedidos por operación");
+        }
+
+        Map<Long, OrderRepository.OrderEstado> bloqueados = orderRepository.lockEstadosByIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(OrderRepository.OrderEstado::getId, Function.identity()));
+        Map<Long, OrderStatus> actuales = bloqueados.values().stream()
+                .collect(Collectors.toMap(OrderRepository.OrderEstado::getId, OrderRepository.OrderEstado::getEstado));
+
+        // Mismas reglas que la actualización individual: solo cambian los pedidos no finalizados
+        List<Long> validos = distinctIds.stream()
+                .filter(id -> actuales.containsKey(id) && !actuales.get(id).isFinal())
+                .toList();
+        LocalDateTime ahora = LocalDateTime.now();
+        int actualizados = validos.isEmpty() ? 0
+                : orderRepository.updateEstadoIn(validos, OrderStatus.activos(), newStatus, ahora);
+        for (Long id : validos) {
+            OrderRepository.OrderEstado previo = bloqueados.get(id);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                    id, previo.getUsuarioId(), newStatus, previo.getVersion() + 1, ahora));
+        }
+
+        List<BulkStatusResponse.Resultado> resultados = distinctIds.stream()
+                .map(id -> {
+                    OrderStatus actual = actuales.get(id);
+                    if (actual == null) {
+                        return new BulkStatusResponse.Resultado(id, "NO_ENCONTRADO", null);
+                    }
+                    if (actual.isFinal()) {
+                        return new BulkStatusResponse.Resultado(id, "TRANSICION_INVALIDA", actual);
+                    }
+                    return new BulkStatusResponse.Resultado(id, "ACTUALIZADO", newStatus);
+                })
                 .collect(Collectors.toList());
+        return new BulkStatusResponse(newStatus, actualizados, resultados);
+    }
+
+    /**
+     * Explica por qué una actualización condicional no afectó filas.
+     * Solo se consulta en el camino de error, así el caso normal sigue siendo una sola sentencia
+     */
+    RuntimeException statusUpdateFailure(Long id, Long expectedVersion) {
+        OrderStatus actual = orderRepository.findEstadoById(id).orElse(null);
+        if (actual == null) {
+            return new RuntimeException("Pedido no encontrado");
+        }
+        if (actual.isFinal()) {
+            return new OrderConflictException(
+                    "No se puede cambiar el estado de un pedido finalizado (estado actual: " + actual + ")");
+        }
+        if (expectedVersion != null) {
+            return new OrderConflictException("El pedido fue modificado por otro usuario, vuelve a cargarlo");
+        }
+        return new OrderConflictException("El pedido cambió de estado mientras se actualizaba (estado actual: " + actual + ")");
+    }
+
+    /**
+     * Obtiene una página de pedidos por estado
+     */
+    public CursorPage<OrderResponse> getOrdersByStatus(OrderStatus status, String cursor, Integer size) {
+        return keysetPage(cursor, size,
+                (fecha, id, limit) -> orderRepository.findKeysByEstadoBefore(status, fecha, id, limit));
+    }
+
+    /**
+     * Paginación por cursor sobre (fecha, id): se busca a partir de la última clave vista, de modo que
+     * una página profunda cuesta lo mismo que la primera. Se pide un elemento extra para saber si hay más
+     */
+    private CursorPage<OrderResponse> keysetPage(String cursor, Integer size, KeysetQuery query) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        LocalDateTime fecha = CURSOR_START_FECHA;
+        long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = decodeCursor(cursor);
+            fecha = LocalDateTime.parse(partes[0]);
+            id = Long.parseLong(partes[1]);
+        }
+
+        List<OrderRepository.OrderKey> keys = query.find(fecha, id, PageRequest.of(0, pageSize + 1));
+        String nextCursor = null;
+        if (keys.size() > pageSize) {
+            keys = keys.subList(0, pageSize);
+            OrderRepository.OrderKey last = keys.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getFecha(), last.getId());
+        }
+
+        List<Long> ids = keys.stream().map(OrderRepository.OrderKey::getId).toList();
+        return new CursorPage<>(getOrderResponses(ids), nextCursor);
+    }
+
+    private static String encodeCursor(LocalDateTime fecha, Long id) {
+        String raw = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = raw.split("\\|");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            LocalDateTime.parse(partes[0]);
+            Long.parseLong(partes[1]);
+            return partes;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Combina dos listas de claves ordenadas por (fecha, id) descendente, hasta el límite indicado
+     */
+    private static List<OrderRepository.OrderKey> mergeKeys(List<OrderRepository.OrderKey> a,
+                                                           List<OrderRepository.OrderKey> b, int limit) {
+        List<OrderRepository.OrderKey> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && compareKeysDesc(a.get(i), b.get(j)) <= 0)) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static int compareKeysDesc(OrderRepository.OrderKey x, OrderRepository.OrderKey y) {
+        int porFecha = y.getFecha().compareTo(x.getFecha());
+        return porFecha != 0 ? porFecha : Long.compare(y.getId(), x.getId());
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<OrderRepository.OrderKey> find(LocalDateTime fecha, Long id, Pageable limit);
     }
 
     /**
-     * Valida que la transición de estado sea válida
+     * Agrupa las líneas del pedido por producto sumando cantidades, conservando el orden original
      */
-    private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
-        // Lógica de validación de transiciones
-        if (currentStatus == OrderStatus.ENTREGADO || currentStatus == OrderStatus.CANCELADO) {
-            throw new RuntimeException("No se puede cambiar el estado de un pedido finalizado");
+    Map<Long, Integer> mergeItems(List<OrderRequest.OrderItemRequest> items) {
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (OrderRequest.OrderItemRequest item : items) {
+            if (item.getProductoId() == null) {
+                throw new RuntimeException("Producto no encontrado");
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new RuntimeException("La cantidad debe ser mayor a cero");
+            }
+            cantidades.merge(item.getProductoId(), item.getCantidad(), Integer::sum);
         }
-        // Se pueden agregar más validaciones según las reglas de negocio
+        return cantidades;
     }
 
     /**
@@ -160,6 +494,12 @@ public class OrderService {
         response.setTotal(order.getTotal());
         response.setDireccionEntrega(order.getDireccionEntrega());
         response.setNotas(order.getNotas());
+        response.setFranjaInicio(order.getFranjaInicio());
+        response.setFranjaFin(order.getFranjaFin());
+        response.setLatitud(order.getLatitud());
+        response.setLongitud(order.getLongitud());
+        response.setCostoEnvio(order.getCostoEnvio());
+        response.setVersion(order.getVersion());
 
         // Convertir items
         List<OrderResponse.OrderItemResponse> items = order.getItems().stream()
@@ -183,6 +523,54 @@ public class OrderService {
                     delivery.getTelefono()
             );
             response.setDeliveryInfo(deliveryInfo);
+            if (order.getEstado() == OrderStatus.POR_ENTREGAR || order.getEstado() == OrderStatus.EN_CAMINO) {
+                response.setFechaEstimadaEntrega(deliveryEtaService.estimate(
+                        order.getId(), delivery.getId(), order.getDeliveryAssignment().getFechaAsignacion()));
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Convierte un pedido archivado a OrderResponse DTO
+     */
+    private OrderResponse convertArchivedOrder(ArchivedOrder order) {
+        OrderResponse response = new OrderResponse();
+        response.setId(order.getId());
+        response.setUsuarioId(order.getUsuario().getId());
+        response.setNombreCliente(order.getUsuario().getNombre());
+        response.setFecha(order.getFecha());
+        response.setEstado(order.getEstado());
+        response.setTotal(order.getTotal());
+        response.setDireccionEntrega(order.getDireccionEntrega());
+        response.setNotas(order.getNotas());
+        response.setFranjaInicio(order.getFranjaInicio());
+        response.setFranjaFin(order.getFranjaFin());
+        response.setLatitud(order.getLatitud());
+        response.setLongitud(order.getLongitud());
+        response.setCostoEnvio(order.getCostoEnvio());
+        response.setVersion(order.getVersion());
+
+        List<OrderResponse.OrderItemResponse> items = order.getItems().stream()
+                .map(item -> new OrderResponse.OrderItemResponse(
+                        item.getId(),
+                        item.getProductoId(),
+                        item.getNombreProducto(),
+                        item.getCantidad(),
+                        item.getPrecioUnitario(),
+                        item.getSubtotal()
+                ))
+                .collect(Collectors.toList());
+        response.setItems(items);
+
+        if (order.getDelivery() != null) {
+            User delivery = order.getDelivery();
+            response.setDeliveryInfo(new OrderResponse.DeliveryInfo(
+                    delivery.getId(),
+                    delivery.getNombre(),
+                    delivery.getTelefono()
+            ));
         }
 
         return response;
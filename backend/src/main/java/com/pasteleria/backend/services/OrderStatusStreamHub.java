@@ -0,0 +1,189 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distribuye por Server-Sent Events los cambios de estado de pedidos a sus clientes
+ * Las conexiones inactivas no ocupan hilos (servlet asíncrono); los envíos se hacen en hilos virtuales,
+ * en orden por suscriptor, para que un cliente lento no frene el commit de quien publica
+ */
+@Component
+public class OrderStatusStreamHub {
+
+    // Eventos pendientes que se toleran por conexión antes de darla por caída
+    private static final int MAX_PENDING = 100;
+
+    private final long timeoutMillis;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public OrderStatusStreamHub(@Value("${orders.stream.timeout-minutes:30}") long timeoutMinutes) {
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+    }
+
+    /**
+     * Abre una suscripción para los pedidos del usuario indicado
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+        connections.incrementAndGet();
+
+        // Comentario inicial para que el cliente reciba las cabeceras de inmediato
+        subscriber.enqueue(SseEmitter.event().comment("conectado"));
+        return emitter;
+    }
+
+    /**
+     * Envía el cambio de estado a las conexiones abiertas del dueño del pedido, tras el commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        published.incrementAndGet();
+        Set<Subscriber> set = subscribers.get(event.usuarioId());
+        if (set == null) {
+            return;
+        }
+        for (Subscriber subscriber : set) {
+            subscriber.enqueue(SseEmitter.event()
+                    .name("estado")
+                    .id(event.pedidoId() + "-" + event.version())
+                    .data(event));
+        }
+    }
+
+    /**
+     * Latido periódico: mantiene vivas las conexiones a través de proxies y detecta clientes desconectados
+     */
+    @Scheduled(fixedRateString = "${orders.stream.heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.enqueue(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    /**
+     * Contadores del hub para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", connections.get());
+        stats.put("users", subscribers.size());
+        stats.put("published", published.get());
+        stats.put("sent", sent.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        connections.decrementAndGet();
+    }
+
+    /**
+     * Conexión de un cliente con su cola de envíos; un solo hilo vacía la cola a la vez
+     */
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > MAX_PENDING) {
+                // El cliente no está leyendo: se corta la conexión y EventSource reconecta
+                dropped.incrementAndGet();
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                    sent.incrementAndGet();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emisor ya completado
+                remove(this);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
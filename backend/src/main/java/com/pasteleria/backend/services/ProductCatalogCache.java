@@ -0,0 +1,153 @@
+package com.pasteleria.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria del catálogo público
+ * Guarda las vistas de solo lectura (todos, por categoría, por ID) con política LRU acotada
+ */
+@Component
+public class ProductCatalogCache {
+
+    static final String KEY_ALL = "all";
+    private static final String PREFIX_CATEGORY = "category:";
+    private static final String PREFIX_ID = "id:";
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Object> entries;
+
+    // Se incrementa en cada invalidación para descartar lecturas iniciadas antes del cambio
+    private final AtomicLong generation = new AtomicLong();
+
+    // Aleatorio por proceso: tras un reinicio o en otro nodo el contador vuelve a valores ya usados,
+    // y sin este prefijo dos catálogos distintos podrían compartir ETag y responder 304 con datos viejos
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCatalogCache(@Value("${catalog.cache.max-entries:500}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    static String categoryKey(String categoria) {
+        return PREFIX_CATEGORY + categoria;
+    }
+
+    static String idKey(Long id) {
+        return PREFIX_ID + id;
+    }
+
+    /**
+     * Devuelve el valor cacheado o lo carga con el loader indicado
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return (T) cached;
+            }
+        }
+        misses.incrementAndGet();
+
+        long startGeneration = generation.get();
+        T value = loader.get();
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (entries) {
+            // Si hubo una escritura mientras se cargaba, el valor puede estar desactualizado
+            if (generation.get() == startGeneration) {
+                entries.put(key, value);
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Invalida las claves afectadas por la escritura de un producto
+     */
+    public void invalidate(Long productId, String... categorias) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(KEY_ALL);
+            if (productId != null) {
+                entries.remove(idKey(productId));
+            }
+            for (String categoria : categorias) {
+                if (categoria != null) {
+                    entries.remove(categoryKey(categoria));
+                }
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Vacía la caché por completo
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Versión actual del catálogo; cambia con cada invalidación
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Versión del catálogo válida fuera de este proceso (para ETags): prefijo del proceso más la generación
+     */
+    public String getVersionTag() {
+        return epoch + "-" + generation.get();
+    }
+
+    /**
+     * Contadores de la caché para monitoreo
+     */
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private void evictOverflow() {
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
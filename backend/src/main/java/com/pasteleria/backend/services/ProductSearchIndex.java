@@ -0,0 +1,388 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre nombre, descripción y categoría de los productos disponibles
+ * Normaliza tildes y mayúsculas, ignora palabras vacías del español y admite coincidencia por prefijo
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "e", "el", "en", "la", "las", "los",
+            "o", "para", "por", "sin", "u", "un", "una", "y");
+
+    // Pesos por campo: una coincidencia en el nombre pesa más que en la descripción
+    private static final int WEIGHT_NOMBRE = 5;
+    private static final int WEIGHT_CATEGORIA = 3;
+    private static final int WEIGHT_DESCRIPCION = 1;
+
+    // Límite de términos expandidos por prefijo para acotar el costo de prefijos muy cortos
+    private static final int MAX_PREFIX_TERMS = 256;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Los productos se identifican internamente por un ordinal denso para puntuar con arreglos
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private Product[] products = new Product[64];
+    private String[] sortKeys = new String[64];
+    private String[][] termsByOrdinal = new String[64][];
+    private int ordinalCount;
+
+    // Arreglos de trabajo por hilo para no reservar memoria en cada búsqueda
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private volatile boolean built;
+
+    /**
+     * Construye el índice completo cuando la aplicación terminó de cargar datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> all = productRepository.findByDisponibleTrue();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinalById.clear();
+            freeOrdinals.clear();
+            Arrays.fill(products, null);
+            Arrays.fill(sortKeys, null);
+            Arrays.fill(termsByOrdinal, null);
+            ordinalCount = 0;
+            for (Product product : all) {
+                addLocked(product);
+            }
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Índice de búsqueda construido con {} productos y {} términos", all.size(), postings.size());
+    }
+
+    /**
+     * Agrega o reemplaza un producto en el índice; si no está disponible solo se quita
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getId());
+            if (Boolean.TRUE.equals(product.getDisponible())) {
+                addLocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del índice
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos que contengan todos los términos de la consulta (exactos o por prefijo),
+     * ordenados por relevancia
+     */
+    public List<Product> search(String query, int limit) {
+        ensureBuilt();
+        List<String> tokens = queryTokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            s.ensureCapacity(ordinalCount);
+            int base = s.nextEpoch(tokens.size());
+
+            for (int t = 0; t < tokens.size(); t++) {
+                int tokenStamp = base + t + 1;
+                s.touchedSize = 0;
+                String token = tokens.get(t);
+
+                Postings exact = postings.get(token);
+                if (exact != null) {
+                    accumulate(s, exact, 2, tokenStamp);
+                }
+                int expanded = 0;
+                for (Postings prefixed : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    if (++expanded > MAX_PREFIX_TERMS) {
+                        break;
+                    }
+                    accumulate(s, prefixed, 1, tokenStamp);
+                }
+
+                // Un producto sigue en carrera solo si coincidió con todos los tokens anteriores
+                int survivors = 0;
+                for (int i = 0; i < s.touchedSize; i++) {
+                    int ord = s.touched[i];
+                    if (t == 0) {
+                        s.total[ord] = s.tokenScore[ord];
+                    } else if (s.matched[ord] == base + t) {
+                        s.total[ord] += s.tokenScore[ord];
+                    } else {
+                        continue;
+                    }
+                    s.matched[ord] = base + t + 1;
+                    s.touched[survivors++] = ord;
+                }
+                s.touchedSize = survivors;
+                if (survivors == 0) {
+                    return List.of();
+                }
+            }
+
+            return topResults(s, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Quita tildes y pasa a minúsculas ("Tórta" -> "torta")
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokens de la consulta sin palabras vacías; si la consulta solo tiene palabras vacías se usan tal cual
+     */
+    private static List<String> queryTokens(String query) {
+        List<String> tokens = tokenize(query);
+        List<String> meaningful = tokens.stream().filter(t -> !STOPWORDS.contains(t)).distinct().toList();
+        return meaningful.isEmpty() ? tokens.stream().distinct().toList() : meaningful;
+    }
+
+    /**
+     * Suma al puntaje del token el mejor peso de cada producto (exacto vale el doble que por prefijo)
+     */
+    private static void accumulate(Scratch s, Postings list, int multiplier, int tokenStamp) {
+        for (int i = 0; i < list.size; i++) {
+            int ord = list.ordinals[i];
+            int score = list.weights[i] * multiplier;
+            if (s.tokenStamp[ord] != tokenStamp) {
+                s.tokenStamp[ord] = tokenStamp;
+                s.tokenScore[ord] = score;
+                s.touched[s.touchedSize++] = ord;
+            } else if (score > s.tokenScore[ord]) {
+                s.tokenScore[ord] = score;
+            }
+        }
+    }
+
+    /**
+     * Selecciona los mejores resultados con un heap acotado en vez de ordenar todas las coincidencias
+     */
+    private List<Product> topResults(Scratch s, int limit) {
+        int[] total = s.total;
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> compareRank(total, b, a));
+        for (int i = 0; i < s.touchedSize; i++) {
+            int ord = s.touched[i];
+            if (heap.size() < limit) {
+                heap.add(ord);
+            } else if (compareRank(total, ord, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(ord);
+            }
+        }
+        Product[] result = new Product[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = products[heap.poll()];
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Orden de relevancia: mayor puntaje, luego nombre y luego ID
+     */
+    private int compareRank(int[] total, int a, int b) {
+        int byScore = Integer.compare(total[b], total[a]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byName = sortKeys[a].compareTo(sortKeys[b]);
+        if (byName != 0) {
+            return byName;
+        }
+        return Long.compare(products[a].getId(), products[b].getId());
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void addLocked(Product product) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addField(weights, product.getNombre(), WEIGHT_NOMBRE);
+        addField(weights, product.getCategoria(), WEIGHT_CATEGORIA);
+        addField(weights, product.getDescripcion(), WEIGHT_DESCRIPCION);
+
+        int ord = freeOrdinals.isEmpty() ? ordinalCount++ : freeOrdinals.pop();
+        if (ord >= products.length) {
+            int capacity = products.length * 2;
+            products = Arrays.copyOf(products, capacity);
+            sortKeys = Arrays.copyOf(sortKeys, capacity);
+            termsByOrdinal = Arrays.copyOf(termsByOrdinal, capacity);
+        }
+        products[ord] = product;
+        sortKeys[ord] = product.getNombre() == null ? "" : fold(product.getNombre());
+        termsByOrdinal[ord] = weights.keySet().toArray(new String[0]);
+        ordinalById.put(product.getId(), ord);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, k -> new Postings()).add(ord, weight));
+    }
+
+    private void removeLocked(Long productId) {
+        Integer ord = ordinalById.remove(productId);
+        if (ord == null) {
+            return;
+        }
+        for (String term : termsByOrdinal[ord]) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(ord) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        products[ord] = null;
+        sortKeys[ord] = null;
+        termsByOrdinal[ord] = null;
+        freeOrdinals.push(ord);
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            if (!STOPWORDS.contains(token)) {
+                weights.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Lista de ocurrencias de un término en arreglos paralelos (ordinal, peso)
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void add(int ord, int weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ord;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(int ord) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ord) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Estado de trabajo de una búsqueda; las marcas por época evitan limpiar los arreglos entre consultas
+     */
+    private static final class Scratch {
+        private int[] tokenStamp = new int[0];
+        private int[] tokenScore = new int[0];
+        private int[] matched = new int[0];
+        private int[] total = new int[0];
+        private int[] touched = new int[0];
+        private int touchedSize;
+        private int epoch;
+
+        void ensureCapacity(int size) {
+            if (tokenStamp.length < size) {
+                int capacity = Math.max(size, tokenStamp.length * 2);
+                tokenStamp = new int[capacity];
+                tokenScore = new int[capacity];
+                matched = new int[capacity];
+                total = new int[capacity];
+                touched = new int[capacity];
+                epoch = 0;
+            }
+        }
+
+        int nextEpoch(int tokens) {
+            if (epoch > Integer.MAX_VALUE - tokens - 2) {
+                Arrays.fill(tokenStamp, 0);
+                Arrays.fill(matched, 0);
+                epoch = 0;
+            }
+            int base = epoch;
+            epoch += tokens + 1;
+            return base;
+        }
+    }
+}
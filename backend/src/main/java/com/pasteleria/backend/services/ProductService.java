@@ -1,12 +1,17 @@
 package com.pasteleria.backend.services;
 
+import com.pasteleria.backend.dto.ProductSuggestion;
 import com.pasteleria.backend.models.Product;
 import com.pasteleria.backend.repositories.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio de productos
@@ -18,6 +23,15 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Value("${catalog.search.max-results:200}")
+    private int searchMaxResults;
+
     /**
      * Obtiene todos los productos
      */
@@ -29,15 +43,20 @@ public class ProductService {
      * Obtiene solo productos disponibles
      */
     public List<Product> getAvailableProducts() {
-        return productRepository.findByDisponibleTrue();
+        return catalogCache.get(ProductCatalogCache.KEY_ALL,
+                () -> List.copyOf(productRepository.findByDisponibleTrue()));
     }
 
     /**
      * Obtiene un producto por ID
      */
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+        Product product = catalogCache.get(ProductCatalogCache.idKey(id),
+                () -> productRepository.findById(id).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Producto no encontrado con id: " + id);
+        }
+        return product;
     }
 
     /**
@@ -45,7 +64,10 @@ public class ProductService {
      */
     @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        invalidateCatalog(saved.getId(), saved.getCategoria());
+        afterCommit(() -> searchIndex.index(saved));
+        return saved;
     }
 
     /**
@@ -53,7 +75,8 @@ public class ProductService {
      */
     @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        String categoriaAnterior = product.getCategoria();
 
         product.setNombre(productDetails.getNombre());
         product.setDescripcion(productDetails.getDescripcion());
@@ -62,7 +85,10 @@ public class ProductService {
         product.setCategoria(productDetails.getCategoria());
         product.setDisponible(productDetails.getDisponible());
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        invalidateCatalog(id, categoriaAnterior, saved.getCategoria());
+        afterCommit(() -> searchIndex.index(saved));
+        return saved;
     }
 
     /**
@@ -70,22 +96,34 @@ public class ProductService {
      */
     @Transactional
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         productRepository.delete(product);
+        invalidateCatalog(id, product.getCategoria());
+        afterCommit(() -> searchIndex.remove(id));
     }
 
     /**
      * Busca productos por categoría
      */
     public List<Product> getProductsByCategory(String categoria) {
-        return productRepository.findByCategoriaAndDisponibleTrue(categoria);
+        return catalogCache.get(ProductCatalogCache.categoryKey(categoria),
+                () -> List.copyOf(productRepository.findByCategoriaAndDisponibleTrue(categoria)));
     }
 
     /**
-     * Busca productos por nombre
+     * Busca productos por nombre, descripción o categoría usando el índice en memoria
      */
     public List<Product> searchProductsByName(String nombre) {
-        return productRepository.findByNombreContainingIgnoreCase(nombre);
+        return searchIndex.search(nombre, searchMaxResults);
+    }
+
+    /**
+     * Sugerencias de autocompletado para el texto ingresado
+     */
+    public List<ProductSuggestion> suggestProducts(String texto, int limite) {
+        return searchIndex.search(texto, limite).stream()
+                .map(p -> new ProductSuggestion(p.getId(), p.getNombre(), p.getCategoria()))
+                .toList();
     }
 
     /**
@@ -93,8 +131,72 @@ public class ProductService {
      */
     @Transactional
     public Product toggleAvailability(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         product.setDisponible(!product.getDisponible());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        invalidateCatalog(id, saved.getCategoria());
+        afterCommit(() -> searchIndex.index(saved));
+        return saved;
+    }
+
+    /**
+     * Versión del catálogo; cambia con cada escritura de productos
+     */
+    public long getCatalogVersion() {
+        return catalogCache.getGeneration();
+    }
+
+    /**
+     * Versión del catálogo para ETags; no se repite entre reinicios ni entre nodos
+     */
+    public String getCatalogTag() {
+        return catalogCache.getVersionTag();
+    }
+
+    /**
+     * Estadísticas de la caché del catálogo
+     */
+    public Map<String, Object> getCatalogCacheStats() {
+        return catalogCache.getStats();
+    }
+
+    /**
+     * Carga el producto desde la base de datos (las escrituras nunca usan la instancia cacheada)
+     */
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual se confirma (o de inmediato si no hay transacción)
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Invalida la caché de inmediato y otra vez al terminar la transacción,
+     * para que una lectura concurrente no vuelva a guardar datos anteriores al commit
+     */
+    private void invalidateCatalog(Long id, String... categorias) {
+        catalogCache.invalidate(id, categorias);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    catalogCache.invalidate(id, categorias);
+                }
+            });
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,382 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.ProductSalesRank;
+import com.pasteleria.backend.dto.RevenuePoint;
+import com.pasteleria.backend.events.OrderCreatedEvent;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.Money;
+import com.pasteleria.backend.models.Order;
+import com.pasteleria.backend.models.OrderItem;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.ProductSalesRollup;
+import com.pasteleria.backend.models.RollupGranularity;
+import com.pasteleria.backend.models.SalesRollup;
+import com.pasteleria.backend.repositories.ArchivedOrderRepository;
+import com.pasteleria.backend.repositories.OrderItemRepository;
+import com.pasteleria.backend.repositories.OrderRepository;
+import com.pasteleria.backend.repositories.ProductSalesRollupRepository;
+import com.pasteleria.backend.repositories.SalesRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Acumulados de ventas por día y por hora: pedidos, ingresos y unidades por producto
+ * Se actualizan de forma incremental con los eventos de pedidos; los cambios se juntan en memoria
+ * y se escriben periódicamente (write-behind), de modo que crear un pedido no agrega escrituras
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private ProductSalesRollupRepository productSalesRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Cambios pendientes de escribir; protegidos por 'lock'
+    private final Object lock = new Object();
+    private Map<PeriodKey, OrderDelta> orderDeltas = new HashMap<>();
+    private Map<ProductKey, ProductDelta> productDeltas = new HashMap<>();
+    private Set<Long> pendingCancellations = new HashSet<>();
+
+    // Serializa las escrituras periódicas con la reconstrucción completa
+    private final Object flushLock = new Object();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Suma el pedido creado a los acumulados de su día y su hora
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(OrderCreatedEvent event) {
+        synchronized (lock) {
+            accumulate(orderDeltas, event.fecha(), event.total(), 1);
+            for (OrderCreatedEvent.Item item : event.items()) {
+                accumulateItem(productDeltas, event.fecha(), item.productoId(), item.cantidad(), item.subtotal(), 1);
+            }
+        }
+    }
+
+    /**
+     * Registra las cancelaciones; se descuentan en la próxima escritura
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.estado() == OrderStatus.CANCELADO) {
+            synchronized (lock) {
+                pendingCancellations.add(event.pedidoId());
+            }
+        }
+    }
+
+    /**
+     * Escribe los cambios acumulados en memoria. Si falla, se devuelven a la cola para el próximo intento
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        synchronized (flushLock) {
+            Map<PeriodKey, OrderDelta> orders;
+            Map<ProductKey, ProductDelta> products;
+            Set<Long> cancellations;
+            synchronized (lock) {
+                if (orderDeltas.isEmpty() && productDeltas.isEmpty() && pendingCancellations.isEmpty()) {
+                    return;
+                }
+                orders = orderDeltas;
+                products = productDeltas;
+                cancellations = pendingCancellations;
+                orderDeltas = new HashMap<>();
+                productDeltas = new HashMap<>();
+                pendingCancellations = new HashSet<>();
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<PeriodKey, OrderDelta> allOrders = new HashMap<>(orders);
+                    Map<ProductKey, ProductDelta> allProducts = new HashMap<>(products);
+                    subtractCancellations(cancellations, allOrders, allProducts);
+                    write(allOrders, allProducts);
+                });
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron escribir los acumulados de ventas, se reintentará: {}", e.getMessage());
+                synchronized (lock) {
+                    orders.forEach((key, delta) -> orderDeltas.computeIfAbsent(key, k -> new OrderDelta()).add(delta));
+                    products.forEach((key, delta) -> productDeltas.computeIfAbsent(key, k -> new ProductDelta()).add(delta));
+                    pendingCancellations.addAll(cancellations);
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe lo pendiente al apagar, para no perder el último intervalo de ventas en cada reinicio
+     */
+    @PreDestroy
+    void shutdown() {
+        flush();
+        synchronized (lock) {
+            if (!orderDeltas.isEmpty() || !productDeltas.isEmpty() || !pendingCancellations.isEmpty()) {
+                log.error("Quedaron acumulados de ventas sin escribir al apagar ({} periodos, {} cancelaciones);"
+                        + " ejecute el backfill para recuperarlos", orderDeltas.size(), pendingCancellations.size());
+            }
+        }
+    }
+
+    /**
+     * Reconstruye todos los acumulados a partir del historial de pedidos, vivo y archivado (excluye los cancelados).
+     * Los pedidos que se confirmen mientras corre pueden contarse dos veces: conviene ejecutarlo con poco tráfico
+     */
+    public Map<String, Object> backfill() {
+        synchronized (flushLock) {
+            synchronized (lock) {
+                orderDeltas = new HashMap<>();
+                productDeltas = new HashMap<>();
+                pendingCancellations = new HashSet<>();
+            }
+
+            return transactionTemplate.execute(status -> {
+                salesRollupRepository.deleteAllRollups();
+                productSalesRollupRepository.deleteAllRollups();
+
+                Map<PeriodKey, OrderDelta> orders = new HashMap<>();
+                Map<ProductKey, ProductDelta> products = new HashMap<>();
+                long[] pedidos = {0};
+                long[] lineas = {0};
+                try (Stream<OrderRepository.OrderSale> sales = orderRepository.streamSalesExcluding(OrderStatus.CANCELADO)) {
+                    sales.forEach(sale -> {
+                        accumulate(orders, sale.getFecha(), sale.getTotal(), 1);
+                        pedidos[0]++;
+                    });
+                }
+                try (Stream<OrderRepository.OrderSale> sales = archivedOrderRepository.streamSalesExcluding(OrderStatus.CANCELADO)) {
+                    sales.forEach(sale -> {
+                        accumulate(orders, sale.getFecha(), sale.getTotal(), 1);
+                        pedidos[0]++;
+                    });
+                }
+                try (Stream<OrderItemRepository.ItemSale> items = orderItemRepository.streamSalesExcluding(OrderStatus.CANCELADO)) {
+                    items.forEach(item -> {
+                        accumulateItem(products, item.getFecha(), item.getProductoId(),
+                                item.getCantidad(), item.getSubtotal(), 1);
+                        lineas[0]++;
+                    });
+                }
+                try (Stream<OrderItemRepository.ItemSale> items = archivedOrderRepository.streamItemSalesExcluding(OrderStatus.CANCELADO)) {
+                    items.forEach(item -> {
+                        accumulateItem(products, item.getFecha(), item.getProductoId(),
+                                item.getCantidad(), item.getSubtotal(), 1);
+                        lineas[0]++;
+                    });
+                }
+                write(orders, products);
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("pedidos", pedidos[0]);
+                result.put("lineas", lineas[0]);
+                result.put("periodos", orders.size());
+                result.put("periodosPorProducto", products.size());
+                return result;
+            });
+        }
+    }
+
+    /**
+     * Serie de ingresos en el rango [desde, hasta), con los períodos sin ventas en cero
+     */
+    public List<RevenuePoint> getRevenueSeries(RollupGranularity granularidad, LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime inicio = granularidad.periodo(desde);
+        Map<LocalDateTime, SalesRollup> rollups = salesRollupRepository
+                .findByGranularidadAndPeriodoGreaterThanEqualAndPeriodoLessThanOrderByPeriodo(granularidad, inicio, hasta)
+                .stream()
+                .collect(Collectors.toMap(SalesRollup::getPeriodo, Function.identity()));
+
+        List<RevenuePoint> serie = new ArrayList<>();
+        for (LocalDateTime periodo = inicio; periodo.isBefore(hasta); periodo = next(granularidad, periodo)) {
+            SalesRollup rollup = rollups.get(periodo);
+            serie.add(rollup != null
+                    ? new RevenuePoint(periodo, rollup.getPedidos(), rollup.getIngresos())
+                    : new RevenuePoint(periodo, 0L, BigDecimal.ZERO));
+        }
+        return serie;
+    }
+
+    /**
+     * Productos más vendidos (por unidades) en el rango [desde, hasta), a partir de los acumulados diarios
+     */
+    public List<ProductSalesRank> getTopProducts(LocalDateTime desde, LocalDateTime hasta, int limite) {
+        return productSalesRollupRepository.findTopProducts(
+                        RollupGranularity.DIA, RollupGranularity.DIA.periodo(desde), hasta, PageRequest.of(0, limite))
+                .stream()
+                .map(total -> new ProductSalesRank(
+                        total.getProductoId(), total.getNombre(), total.getUnidades(), total.getIngresos()))
+                .collect(Collectors.toList());
+    }
+
+    private void subtractCancellations(Set<Long> ids, Map<PeriodKey, OrderDelta> orders,
+                                       Map<ProductKey, ProductDelta> products) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Order order : orderRepository.findByIdIn(ids)) {
+            accumulate(orders, order.getFecha(), order.getTotal(), -1);
+            for (OrderItem item : order.getItems()) {
+                accumulateItem(products, order.getFecha(), item.getProducto().getId(),
+                        item.getCantidad(), item.getSubtotal(), -1);
+            }
+        }
+    }
+
+    /**
+     * Aplica los cambios sobre las filas existentes (o las crea) con una lectura y un saveAll por granularidad
+     */
+    private void write(Map<PeriodKey, OrderDelta> orders, Map<ProductKey, ProductDelta> products) {
+        for (RollupGranularity granularidad : RollupGranularity.values()) {
+            Map<LocalDateTime, OrderDelta> porPeriodo = new HashMap<>();
+            orders.forEach((key, delta) -> {
+                if (key.granularidad() == granularidad) {
+                    porPeriodo.put(key.periodo(), delta);
+                }
+            });
+            if (!porPeriodo.isEmpty()) {
+                Map<LocalDateTime, SalesRollup> existentes = salesRollupRepository
+                        .findByGranularidadAndPeriodoIn(granularidad, porPeriodo.keySet()).stream()
+                        .collect(Collectors.toMap(SalesRollup::getPeriodo, Function.identity()));
+                List<SalesRollup> filas = new ArrayList<>(porPeriodo.size());
+                porPeriodo.forEach((periodo, delta) -> {
+                    SalesRollup fila = existentes.computeIfAbsent(periodo, p -> {
+                        SalesRollup nueva = new SalesRollup();
+                        nueva.setGranularidad(granularidad);
+                        nueva.setPeriodo(p);
+                        return nueva;
+                    });
+                    fila.setPedidos(fila.getPedidos() + delta.pedidos);
+                    fila.setIngresos(fila.getIngresos().add(Money.toBigDecimal(delta.centavos)));
+                    filas.add(fila);
+                });
+                salesRollupRepository.saveAll(filas);
+            }
+
+            Map<ProductKey, ProductDelta> productosGranularidad = new HashMap<>();
+            Set<LocalDateTime> periodos = new HashSet<>();
+            products.forEach((key, delta) -> {
+                if (key.granularidad() == granularidad) {
+                    productosGranularidad.put(key, delta);
+                    periodos.add(key.periodo());
+                }
+            });
+            if (!productosGranularidad.isEmpty()) {
+                Map<ProductKey, ProductSalesRollup> existentes = productSalesRollupRepository
+                        .findByGranularidadAndPeriodoIn(granularidad, periodos).stream()
+                        .collect(Collectors.toMap(
+                                r -> new ProductKey(granularidad, r.getPeriodo(), r.getProductoId()), Function.identity()));
+                List<ProductSalesRollup> filas = new ArrayList<>(productosGranularidad.size());
+                productosGranularidad.forEach((key, delta) -> {
+                    ProductSalesRollup fila = existentes.computeIfAbsent(key, k -> {
+                        ProductSalesRollup nueva = new ProductSalesRollup();
+                        nueva.setGranularidad(granularidad);
+                        nueva.setPeriodo(k.periodo());
+                        nueva.setProductoId(k.productoId());
+                        return nueva;
+                    });
+                    fila.setUnidades(fila.getUnidades() + delta.unidades);
+                    fila.setIngresos(fila.getIngresos().add(Money.toBigDecimal(delta.centavos)));
+                    filas.add(fila);
+                });
+                productSalesRollupRepository.saveAll(filas);
+            }
+        }
+    }
+
+    private static void accumulate(Map<PeriodKey, OrderDelta> orders, LocalDateTime fecha, BigDecimal total, int signo) {
+        long monto = signo * Money.toCents(total);
+        for (RollupGranularity granularidad : RollupGranularity.values()) {
+            OrderDelta delta = orders.computeIfAbsent(
+                    new PeriodKey(granularidad, granularidad.periodo(fecha)), k -> new OrderDelta());
+            delta.pedidos += signo;
+            delta.centavos += monto;
+        }
+    }
+
+    private static void accumulateItem(Map<ProductKey, ProductDelta> products, LocalDateTime fecha, Long productoId,
+                                       Integer cantidad, BigDecimal subtotal, int signo) {
+        long monto = signo * Money.toCents(subtotal);
+        for (RollupGranularity granularidad : RollupGranularity.values()) {
+            ProductDelta delta = products.computeIfAbsent(
+                    new ProductKey(granularidad, granularidad.periodo(fecha), productoId), k -> new ProductDelta());
+            delta.unidades += (long) signo * cantidad;
+            delta.centavos += monto;
+        }
+    }
+
+    private static LocalDateTime next(RollupGranularity granularidad, LocalDateTime periodo) {
+        return granularidad == RollupGranularity.DIA ? periodo.plusDays(1) : periodo.plusHours(1);
+    }
+
+    private record PeriodKey(RollupGranularity granularidad, LocalDateTime periodo) {
+    }
+
+    private record ProductKey(RollupGranularity granularidad, LocalDateTime periodo, Long productoId) {
+    }
+
+    private static final class OrderDelta {
+        private long pedidos;
+        private long centavos;
+
+        private void add(OrderDelta other) {
+            pedidos += other.pedidos;
+            centavos += other.centavos;
+        }
+    }
+
+    private static final class ProductDelta {
+        private long unidades;
+        private long centavos;
+
+        private void add(ProductDelta other) {
+            unidades += other.unidades;
+            centavos += other.centavos;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.pasteleria.backend.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Índice espacial inmutable de las zonas de reparto
+ * Divide el rectángulo que cubre todas las zonas en una grilla; cada celda guarda las zonas cuyo
+ * rectángulo la toca. Una búsqueda calcula la celda y prueba punto-en-polígono solo con esas zonas
+ */
+final class ZoneIndex {
+
+    static final ZoneIndex EMPTY = new ZoneIndex(List.of(), 1);
+
+    private final List<Zone> zones;
+    private final int size;
+    private final double minLat;
+    private final double minLng;
+    private final double maxLat;
+    private final double maxLng;
+    private final double cellLat;
+    private final double cellLng;
+    private final Zone[][] cells;
+
+    ZoneIndex(List<Zone> zones, int gridSize) {
+        this.zones = List.copyOf(zones);
+        this.size = Math.max(1, gridSize);
+        double minLat = Double.MAX_VALUE, minLng = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (Zone zone : zones) {
+            minLat = Math.min(minLat, zone.minLat);
+            minLng = Math.min(minLng, zone.minLng);
+            maxLat = Math.max(maxLat, zone.maxLat);
+            maxLng = Math.max(maxLng, zone.maxLng);
+        }
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.maxLat = maxLat;
+        this.maxLng = maxLng;
+        // Un ancho mínimo evita divisiones por cero con zonas degeneradas
+        this.cellLat = Math.max((maxLat - minLat) / size, 1e-9);
+        this.cellLng = Math.max((maxLng - minLng) / size, 1e-9);
+        this.cells = new Zone[size * size][];
+
+        List<List<Zone>> porCelda = new ArrayList<>(size * size);
+        for (int i = 0; i < size * size; i++) {
+            porCelda.add(new ArrayList<>());
+        }
+        for (Zone zone : zones) {
+            int fila0 = clamp(row(zone.minLat)), fila1 = clamp(row(zone.maxLat));
+            int col0 = clamp(col(zone.minLng)), col1 = clamp(col(zone.maxLng));
+            for (int fila = fila0; fila <= fila1; fila++) {
+                for (int col = col0; col <= col1; col++) {
+                    porCelda.get(fila * size + col).add(zone);
+                }
+            }
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = porCelda.get(i).toArray(new Zone[0]);
+        }
+    }
+
+    /**
+     * Primera zona (por ID) que contiene el punto; null si no hay ninguna
+     */
+    Zone find(double lat, double lng) {
+        if (zones.isEmpty()) {
+            return null;
+        }
+        if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) {
+            return null;
+        }
+        // El borde superior/derecho cae en la última celda
+        int fila = clamp(row(lat)), col = clamp(col(lng));
+        for (Zone zone : cells[fila * size + col]) {
+            if (zone.contains(lat, lng)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return zones.isEmpty();
+    }
+
+    int zoneCount() {
+        return zones.size();
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat - minLat) / cellLat);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((lng - minLng) / cellLng);
+    }
+
+    private int clamp(int index) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    /**
+     * Polígono de una zona con su rectángulo envolvente y el costo de envío en centavos
+     */
+    static final class Zone {
+        final Long id;
+        final String nombre;
+        final long costoEnvioCentavos;
+        private final double[] lats;
+        private final double[] lngs;
+        private final double minLat;
+        private final double minLng;
+        private final double maxLat;
+        private final double maxLng;
+
+        Zone(Long id, String nombre, long costoEnvioCentavos, double[] lats, double[] lngs) {
+            this.id = id;
+            this.nombre = nombre;
+            this.costoEnvioCentavos = costoEnvioCentavos;
+            this.lats = lats;
+            this.lngs = lngs;
+            double minLat = Double.MAX_VALUE, minLng = Double.MAX_VALUE;
+            double maxLat = -Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+            for (int i = 0; i < lats.length; i++) {
+                minLat = Math.min(minLat, lats[i]);
+                maxLat = Math.max(maxLat, lats[i]);
+                minLng = Math.min(minLng, lngs[i]);
+                maxLng = Math.max(maxLng, lngs[i]);
+            }
+            this.minLat = minLat;
+            this.minLng = minLng;
+            this.maxLat = maxLat;
+            this.maxLng = maxLng;
+        }
+
+        /**
+         * Punto en polígono por cruce de rayos
+         */
+        boolean contains(double lat, double lng) {
+            if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) {
+                return false;
+            }
+            boolean dentro = false;
+            for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+                if ((lats[i] > lat) != (lats[j] > lat)
+                        && lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+                    dentro = !dentro;
+                }
+            }
+            return dentro;
+        }
+    }
+}
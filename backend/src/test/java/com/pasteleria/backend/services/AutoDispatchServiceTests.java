@@ -0,0 +1,209 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.AutoAssignResponse;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.models.Role;
+import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.repositories.OrderRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asignación automática por lotes: reparto al repartidor menos cargado, reintento cuando una
+ * asignación manual gana la carrera por un pedido del lote, y pedidos que ya estaban POR_ENTREGAR
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN",
+        "delivery.auto-assign.max-open-per-courier=1000"})
+@RecordApplicationEvents
+class AutoDispatchServiceTests extends ServiceTestSupport {
+
+    private static final int ORDERS = 7;
+
+    @Autowired
+    private AutoDispatchService autoDispatchService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final List<User> couriers = new ArrayList<>();
+
+    @AfterEach
+    void deactivateCouriers() {
+        CandidateHook.afterCandidates = null;
+        // Los repartidores de prueba no deben sumar capacidad a las franjas de otras pruebas
+        for (User courier : couriers) {
+            courier.setActivo(false);
+            userRepository.save(courier);
+        }
+    }
+
+    @Test
+    void batchGoesToTheLeastLoadedCourierAndOnlyMovesOrdersThatChangeState() {
+        User primero = newCourier();
+        User segundo = newCourier();
+        List<OrderResponse> enPreparacion = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            enPreparacion.add(readyOrder(OrderStatus.EN_PREPARACION));
+        }
+        OrderResponse yaListo = readyOrder(OrderStatus.POR_ENTREGAR);
+        events.clear();
+
+        authenticate(admin);
+        AutoAssignResponse result = autoDispatchService.autoAssign();
+
+        Map<Long, Long> asignados = result.getAsignaciones().stream()
+                .collect(Collectors.toMap(AutoAssignResponse.Asignacion::getPedidoId,
+                        AutoAssignResponse.Asignacion::getDeliveryId));
+        for (OrderResponse order : enPreparacion) {
+            assertTrue(asignados.containsKey(order.getId()), "Todos los pedidos listos deben asignarse");
+        }
+        assertTrue(asignados.containsKey(yaListo.getId()));
+
+        // Nadie recibe pedidos mientras otro repartidor tenga más de uno de carga menos
+        long menor = result.getCarga().stream().mapToLong(AutoAssignResponse.Carga::getAbiertos).min().orElseThrow();
+        for (AutoAssignResponse.Carga carga : result.getCarga()) {
+            if (carga.getAsignadosAhora() > 0) {
+                assertTrue(carga.getAbiertos() <= menor + 1,
+                        "Carga desbalanceada: " + carga.getNombreDelivery() + " con " + carga.getAbiertos());
+            }
+        }
+        assertTrue(asignados.containsValue(primero.getId()));
+        assertTrue(asignados.containsValue(segundo.getId()));
+
+        // Los que pasan de EN_PREPARACION avanzan una versión y publican su cambio de estado
+        for (OrderResponse order : enPreparacion) {
+            OrderResponse actual = orderService.getOrderById(order.getId());
+            assertEquals(OrderStatus.POR_ENTREGAR, actual.getEstado());
+            assertEquals(order.getVersion() + 1, actual.getVersion());
+            assertEquals(1, statusEventsFor(order.getId()));
+        }
+        // El que ya estaba POR_ENTREGAR solo recibe repartidor
+        assertEquals(yaListo.getVersion(), orderService.getOrderById(yaListo.getId()).getVersion());
+        assertEquals(0, statusEventsFor(yaListo.getId()));
+    }
+
+    @Test
+    void manualAssignmentDuringTheBatchIsRetriedWithoutThatOrder() {
+        newCourier();
+        OrderResponse disputado = readyOrder(OrderStatus.EN_PREPARACION);
+        OrderResponse otro = readyOrder(OrderStatus.EN_PREPARACION);
+
+        // Tras elegir los candidatos del primer lote, un ADMIN asigna a mano uno de ellos desde otra conexión
+        CandidateHook.afterCandidates = () -> CompletableFuture.runAsync(() -> {
+            authenticate(admin);
+            try {
+                deliveryService.assignOrderToDelivery(disputado.getId(), repartidor.getId());
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }).join();
+
+        authenticate(admin);
+        AutoAssignResponse result = autoDispatchService.autoAssign();
+
+        assertNull(CandidateHook.afterCandidates, "La asignación manual debe ocurrir durante el primer lote");
+        List<Long> asignados = result.getAsignaciones().stream().map(AutoAssignResponse.Asignacion::getPedidoId).toList();
+        assertFalse(asignados.contains(disputado.getId()), "El pedido asignado a mano queda fuera del reintento");
+        assertTrue(asignados.contains(otro.getId()), "El resto del lote se asigna en el reintento");
+
+        OrderResponse manual = orderService.getOrderById(disputado.getId());
+        assertEquals(OrderStatus.POR_ENTREGAR, manual.getEstado());
+        assertEquals(disputado.getVersion() + 1, manual.getVersion(), "El lote revertido no deja cambios en el pedido");
+    }
+
+    private User newCourier() {
+        User courier = new User();
+        courier.setNombre("Repartidor de prueba");
+        courier.setEmail("auto-dispatch-" + System.nanoTime() + "@pasteleria.com");
+        courier.setTelefono("999000111");
+        courier.setPassword("-");
+        courier.setRol(Role.DELIVERY);
+        courier.setActivo(true);
+        courier = userRepository.save(courier);
+        couriers.add(courier);
+        return courier;
+    }
+
+    /**
+     * Pedido nuevo sin repartidor en el estado indicado (EN_PREPARACION o POR_ENTREGAR)
+     */
+    private OrderResponse readyOrder(OrderStatus estado) {
+        Product product = productRepository.findByDisponibleTrue().get(0);
+        authenticate(cliente);
+        OrderResponse order = orderService.createOrder(new OrderRequest(
+                List.of(new OrderRequest.OrderItemRequest(product.getId(), 1)), "Av. Despacho 1", null));
+        authenticate(admin);
+        order = orderService.updateOrderStatus(order.getId(), OrderStatus.EN_PREPARACION, order.getVersion());
+        if (estado == OrderStatus.POR_ENTREGAR) {
+            order = orderService.updateOrderStatus(order.getId(), OrderStatus.POR_ENTREGAR, order.getVersion());
+        }
+        return order;
+    }
+
+    private long statusEventsFor(Long orderId) {
+        return events.stream(OrderStatusChangedEvent.class)
+                .filter(event -> event.pedidoId().equals(orderId) && event.estado() == OrderStatus.POR_ENTREGAR)
+                .count();
+    }
+
+    /**
+     * Ejecuta una sola vez 'afterCandidates' justo después de que el lote consulta sus candidatos
+     */
+    @TestConfiguration
+    static class CandidateHook {
+
+        static volatile Runnable afterCandidates;
+
+        @Bean
+        static BeanPostProcessor candidateHookPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof OrderRepository && bean instanceof Advised advised) {
+                        advised.addAdvice(0, (MethodInterceptor) invocation -> {
+                            Object result = invocation.proceed();
+                            Runnable hook = afterCandidates;
+                            if (hook != null && invocation.getMethod().getName().equals("findUnassignedIds")) {
+                                afterCandidates = null;
+                                hook.run();
+                            }
+                            return result;
+                        });
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.BulkStatusResponse;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cambio de estado masivo: éxito parcial, pedidos finalizados y convivencia con las actualizaciones versionadas
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN"})
+class BulkOrderStatusTests extends ServiceTestSupport {
+
+    private static final long MISSING_ID = 987_654_321L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void partialSuccessReportsEachOrder() {
+        OrderResponse activo = newOrder();
+        OrderResponse cancelado = newOrder();
+        authenticate(admin);
+        orderService.updateOrderStatus(cancelado.getId(), OrderStatus.CANCELADO, cancelado.getVersion());
+
+        BulkStatusResponse result = orderService.updateOrderStatuses(
+                Arrays.asList(activo.getId(), cancelado.getId(), MISSING_ID, activo.getId(), null),
+                OrderStatus.EN_PREPARACION);
+
+        assertEquals(OrderStatus.EN_PREPARACION, result.getEstado());
+        assertEquals(1, result.getActualizados());
+        assertEquals(3, result.getResultados().size(), "Los IDs repetidos o nulos se informan una sola vez");
+        Map<Long, BulkStatusResponse.Resultado> porId = byId(result);
+        assertEquals("ACTUALIZADO", porId.get(activo.getId()).getResultado());
+        assertEquals(OrderStatus.EN_PREPARACION, porId.get(activo.getId()).getEstadoActual());
+        assertEquals("TRANSICION_INVALIDA", porId.get(cancelado.getId()).getResultado());
+        assertEquals("NO_ENCONTRADO", porId.get(MISSING_ID).getResultado());
+
+        assertEquals(OrderStatus.EN_PREPARACION, orderService.getOrderById(activo.getId()).getEstado());
+    }
+
+    @Test
+    void finalizedOrdersAreInvalidTransitionsAndStayUnchanged() {
+        OrderResponse entregado = newOrder();
+        OrderResponse cancelado = newOrder();
+        authenticate(admin);
+        OrderResponse entregadoFinal = orderService.updateOrderStatus(
+                entregado.getId(), OrderStatus.ENTREGADO, entregado.getVersion());
+        OrderResponse canceladoFinal = orderService.updateOrderStatus(
+                cancelado.getId(), OrderStatus.CANCELADO, cancelado.getVersion());
+
+        BulkStatusResponse result = orderService.updateOrderStatuses(
+                List.of(entregado.getId(), cancelado.getId()), OrderStatus.POR_ENTREGAR);
+
+        assertEquals(0, result.getActualizados());
+        Map<Long, BulkStatusResponse.Resultado> porId = byId(result);
+        assertEquals("TRANSICION_INVALIDA", porId.get(entregado.getId()).getResultado());
+        assertEquals(OrderStatus.ENTREGADO, porId.get(entregado.getId()).getEstadoActual());
+        assertEquals("TRANSICION_INVALIDA", porId.get(cancelado.getId()).getResultado());
+        assertEquals(OrderStatus.CANCELADO, porId.get(cancelado.getId()).getEstadoActual());
+
+        OrderResponse entregadoDespues = orderService.getOrderById(entregado.getId());
+        assertEquals(OrderStatus.ENTREGADO, entregadoDespues.getEstado());
+        assertEquals(entregadoFinal.getVersion(), entregadoDespues.getVersion());
+        assertEquals(canceladoFinal.getVersion(), orderService.getOrderById(cancelado.getId()).getVersion());
+    }
+
+    @Test
+    void bulkUpdateBumpsVersionSoStaleSingleUpdatesConflict() {
+        OrderResponse order = newOrder();
+        authenticate(admin);
+
+        BulkStatusResponse result = orderService.updateOrderStatuses(List.of(order.getId()), OrderStatus.EN_PREPARACION);
+        assertEquals(1, result.getActualizados());
+        assertEquals(order.getVersion() + 1, orderService.getOrderById(order.getId()).getVersion());
+
+        // Un cliente que cargó el pedido antes del cambio masivo ya no puede pisarlo
+        assertThrows(OrderConflictException.class,
+                () -> orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELADO, order.getVersion()));
+        assertEquals(OrderStatus.EN_PREPARACION, orderService.getOrderById(order.getId()).getEstado());
+    }
+
+    @Test
+    void bulkUpdateAppliesOverAVersionMovedByAnotherUser() {
+        OrderResponse order = newOrder();
+        authenticate(admin);
+        OrderResponse moved = orderService.updateOrderStatus(order.getId(), OrderStatus.EN_PREPARACION, order.getVersion());
+
+        BulkStatusResponse result = orderService.updateOrderStatuses(List.of(order.getId()), OrderStatus.POR_ENTREGAR);
+
+        assertEquals("ACTUALIZADO", byId(result).get(order.getId()).getResultado());
+        OrderResponse after = orderService.getOrderById(order.getId());
+        assertEquals(OrderStatus.POR_ENTREGAR, after.getEstado());
+        assertEquals(moved.getVersion() + 1, after.getVersion(), "El cambio masivo parte de la versión vigente");
+    }
+
+    private static Map<Long, BulkStatusResponse.Resultado> byId(BulkStatusResponse result) {
+        return result.getResultados().stream()
+                .collect(Collectors.toMap(BulkStatusResponse.Resultado::getId, r -> r));
+    }
+
+    private OrderResponse newOrder() {
+        Product product = productRepository.findByDisponibleTrue().get(0);
+        authenticate(cliente);
+        return orderService.createOrder(new OrderRequest(
+                List.of(new OrderRequest.OrderItemRequest(product.getId(), 1)), "Av. Masiva 1", null));
+    }
+}
@@ -0,0 +1,130 @@
+package com.pasteleria.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasteleria.backend.models.Product;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Compara el catálogo servido desde snapshots pre-codificados contra la serialización Jackson por petición
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogSnapshotBenchmarkTests {
+
+    private static final int PRODUCTS = 300;
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogSnapshotCache snapshotCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @BeforeAll
+    void createCatalog() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setNombre("Producto de prueba " + i);
+            product.setDescripcion("Descripción larga del producto de prueba número " + i + " con crema y frutas");
+            product.setPrecio(new BigDecimal("19.90"));
+            product.setImagenUrl("https://example.com/imagenes/producto-" + i + ".jpg");
+            product.setCategoria("Benchmark");
+            createdIds.add(productService.createProduct(product).getId());
+        }
+    }
+
+    @AfterAll
+    void deleteCatalog() {
+        createdIds.forEach(productService::deleteProduct);
+    }
+
+    @Test
+    void snapshotVersusJacksonUnderConcurrentLoad() throws Exception {
+        byte[] jackson = objectMapper.writeValueAsBytes(productService.getAvailableProducts());
+        assertArrayEquals(jackson, snapshotCache.getAvailableProducts().json());
+
+        OutputStream sink = OutputStream.nullOutputStream();
+
+        double jacksonOps = run(() -> sink.write(objectMapper.writeValueAsBytes(productService.getAvailableProducts())));
+        double snapshotOps = run(() -> sink.write(snapshotCache.getAvailableProducts().json()));
+        double jacksonGzipOps = run(() -> {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream())) {
+                gzip.write(objectMapper.writeValueAsBytes(productService.getAvailableProducts()));
+            }
+        });
+        double snapshotGzipOps = run(() -> sink.write(snapshotCache.getAvailableProducts().gzip()));
+
+        System.out.printf("Catálogo: %d productos, JSON %d bytes, gzip %d bytes%n",
+                productService.getAvailableProducts().size(), jackson.length,
+                snapshotCache.getAvailableProducts().gzip().length);
+        System.out.printf("JSON  - Jackson por petición: %,.0f req/s | snapshot: %,.0f req/s (x%.1f)%n",
+                jacksonOps, snapshotOps, snapshotOps / jacksonOps);
+        System.out.printf("gzip  - Jackson + gzip por petición: %,.0f req/s | snapshot: %,.0f req/s (x%.1f)%n",
+                jacksonGzipOps, snapshotGzipOps, snapshotGzipOps / jacksonGzipOps);
+    }
+
+    /**
+     * Ejecuta la tarea desde varios hilos (con una ronda de calentamiento) y devuelve peticiones por segundo
+     */
+    private double run(Task task) throws Exception {
+        execute(task);
+        long start = System.nanoTime();
+        execute(task);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return THREADS * REQUESTS_PER_THREAD / seconds;
+    }
+
+    private void execute(Task task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        task.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
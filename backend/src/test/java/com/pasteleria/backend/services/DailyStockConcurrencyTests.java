@@ -0,0 +1,107 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DailyStockResponse;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.repositories.ProductDailyStockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prueba de estrés del stock diario: muchos clientes compran a la vez el mismo producto con
+ * pocas unidades. Nunca se debe vender más que la capacidad del día
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN"})
+class DailyStockConcurrencyTests extends ServiceTestSupport {
+
+    private static final int CAPACITY = 30;
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DailyStockService dailyStockService;
+
+    @Autowired
+    private ProductDailyStockRepository stockRepository;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = new Product();
+        product.setNombre("Torta de edición limitada");
+        product.setPrecio(new BigDecimal("80.00"));
+        product.setCategoria("Prueba");
+        Long productId = productRepository.save(product).getId();
+        LocalDate hoy = LocalDate.now();
+        dailyStockService.setCapacity(productId, hoy, CAPACITY);
+
+        List<Long> creados = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rechazados = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    authenticate(cliente);
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            OrderResponse order = orderService.createOrder(new OrderRequest(
+                                    List.of(new OrderRequest.OrderItemRequest(productId, 1)), "Av. Stock 1", null));
+                            creados.add(order.getId());
+                        } catch (RuntimeException e) {
+                            rechazados.incrementAndGet();
+                        }
+                    }
+                    SecurityContextHolder.clearContext();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(CAPACITY, creados.size(), "No se debe vender más que la capacidad del día");
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - CAPACITY, rechazados.get());
+        assertEquals(CAPACITY, stockOf(productId, hoy).getReservado());
+
+        // Al cancelar un pedido su unidad vuelve al stock y se escribe en la base con el próximo flush
+        authenticate(admin);
+        Long cancelado = creados.get(0);
+        orderService.updateOrderStatus(cancelado, OrderStatus.CANCELADO, orderService.getOrderById(cancelado).getVersion());
+        assertEquals(CAPACITY - 1, stockOf(productId, hoy).getReservado());
+        dailyStockService.flush();
+        assertEquals(CAPACITY - 1, stockRepository.findByProductoIdAndFecha(productId, hoy).orElseThrow().getReservado());
+    }
+
+    private DailyStockResponse stockOf(Long productId, LocalDate fecha) {
+        return dailyStockService.getStock(fecha).stream()
+                .filter(stock -> stock.getProductoId().equals(productId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,55 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DeliveryMetricsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Percentiles de los histogramas de entregas: error relativo acotado y ventanas deslizantes
+ */
+class DeliveryMetricsServiceTests {
+
+    @Test
+    void percentilesWithinRelativeErrorAndWindowed() {
+        DeliveryMetricsService metrics = new DeliveryMetricsService(5, 24);
+        long ahora = System.currentTimeMillis();
+        LocalDateTime entrega = LocalDateTime.now();
+
+        // Hace dos horas: entregas muy lentas que no deben aparecer en la ventana de una hora
+        long antes = ahora - TimeUnit.HOURS.toMillis(2);
+        for (int i = 0; i < 50; i++) {
+            metrics.record(7L, null, entrega.minusHours(5), entrega, antes);
+        }
+        // Ahora: asignación-entrega de 1 a 1000 segundos, repartidas entre dos repartidores
+        for (int segundos = 1; segundos <= 1000; segundos++) {
+            metrics.record(segundos % 2 == 0 ? 7L : 8L, entrega.minusSeconds(segundos + 600),
+                    entrega.minusSeconds(segundos), entrega, ahora);
+        }
+
+        DeliveryMetricsResponse.Percentiles hora = metrics.getMetrics(60).getAsignacionEntrega();
+        assertEquals(1000, hora.getEntregas());
+        assertWithin(500, hora.getP50());
+        assertWithin(900, hora.getP90());
+        assertWithin(990, hora.getP99());
+        assertWithin(1600, metrics.getMetrics(60).getPedidoEntrega().getMax());
+
+        DeliveryMetricsResponse.Percentiles dia = metrics.getMetrics(24 * 60).getAsignacionEntrega();
+        assertEquals(1050, dia.getEntregas());
+        assertWithin(5 * 3600, dia.getP99());
+
+        assertEquals(500, metrics.getCourierMetrics(8L, 60).getAsignacionEntrega().getEntregas());
+        assertEquals(2, metrics.getCourierMetrics(60).size());
+        assertNull(metrics.getCourierMetrics(99L, 60).getAsignacionEntrega().getP50());
+    }
+
+    private static void assertWithin(long esperado, long actual) {
+        assertTrue(Math.abs(actual - esperado) <= esperado * 0.03 + 1,
+                "Se esperaba ~" + esperado + " y se obtuvo " + actual);
+    }
+}
@@ -0,0 +1,112 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DeliverySlotResponse;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de las franjas de entrega: muchos clientes eligen a la vez la misma franja.
+ * Se confirman exactamente tantos pedidos como la capacidad de la franja
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN"})
+class DeliverySlotConcurrencyTests extends ServiceTestSupport {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 5;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DeliverySlotService deliverySlotService;
+
+    @Test
+    void concurrentBookingsNeverExceedSlotCapacity() throws Exception {
+        // Primera franja de pasado mañana: siempre dentro de la anticipación permitida
+        LocalDate dia = LocalDate.now().plusDays(2);
+        DeliverySlotResponse franja = deliverySlotService.getAvailableSlots(dia).get(0);
+        LocalDateTime inicio = franja.getInicio();
+        int capacidad = franja.getCapacidad();
+        assertTrue(capacidad > 0 && capacidad < THREADS * ATTEMPTS_PER_THREAD,
+                "La prueba necesita más intentos que lugares (capacidad " + capacidad + ")");
+
+        Product product = productRepository.findByDisponibleTrue().get(0);
+        List<Long> creados = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger completos = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    authenticate(cliente);
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            OrderResponse order = orderService.createOrder(new OrderRequest(
+                                    List.of(new OrderRequest.OrderItemRequest(product.getId(), 1)),
+                                    "Av. Franja 1", null, inicio, null, null));
+                            creados.add(order.getId());
+                        } catch (RuntimeException e) {
+                            if ("La franja de entrega está completa".equals(e.getMessage())) {
+                                completos.incrementAndGet();
+                            }
+                        }
+                    }
+                    SecurityContextHolder.clearContext();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(capacidad, creados.size(), "No se deben confirmar más pedidos que la capacidad de la franja");
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - capacidad, completos.get());
+        assertEquals(capacidad, slotAt(inicio).getReservados());
+        assertEquals(0, slotAt(inicio).getDisponibles());
+
+        // Al cancelar un pedido su lugar vuelve a la franja y otro cliente puede tomarlo
+        authenticate(admin);
+        Long cancelado = creados.get(0);
+        orderService.updateOrderStatus(cancelado, OrderStatus.CANCELADO, orderService.getOrderById(cancelado).getVersion());
+        assertEquals(capacidad - 1, slotAt(inicio).getReservados());
+
+        authenticate(cliente);
+        OrderResponse reemplazo = orderService.createOrder(new OrderRequest(
+                List.of(new OrderRequest.OrderItemRequest(product.getId(), 1)), "Av. Franja 2", null, inicio, null, null));
+        assertEquals(inicio, reemplazo.getFranjaInicio());
+        assertEquals(capacidad, slotAt(inicio).getReservados());
+    }
+
+    private DeliverySlotResponse slotAt(LocalDateTime inicio) {
+        return deliverySlotService.getAvailableSlots(inicio.toLocalDate()).stream()
+                .filter(slot -> slot.getInicio().equals(inicio))
+                .findFirst()
+                .orElseThrow();
+    }
+}
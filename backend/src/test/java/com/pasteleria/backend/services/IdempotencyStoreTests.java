@@ -0,0 +1,50 @@
+package com.pasteleria.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Desalojo del almacén de idempotencia: el tamaño no supera el máximo aunque la entrada más vieja siga en curso
+ */
+class IdempotencyStoreTests {
+
+    @Test
+    void overflowEvictsPastAnInFlightHead() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(60, 3, 5);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slow = new Thread(() -> store.execute("pedido", "lenta", "a", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "lenta";
+        }));
+        slow.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            store.execute("pedido", "k" + i, "a", () -> "v");
+        }
+        assertEquals(3, store.getStats().get("size"));
+
+        release.countDown();
+        slow.join();
+        // La entrada en curso no se desalojó; de las resueltas quedan las más nuevas
+        assertTrue(store.execute("pedido", "lenta", "a", () -> "otra").replayed());
+        assertTrue(store.execute("pedido", "k9", "a", () -> "otra").replayed());
+        assertFalse(store.execute("pedido", "k0", "a", () -> "otra").replayed());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.KitchenBoardResponse;
+import com.pasteleria.backend.events.OrderCreatedEvent;
+import com.pasteleria.backend.events.OrderStatusChangedEvent;
+import com.pasteleria.backend.models.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tablero de cocina con eventos fuera de orden: un cambio de estado confirmado por otro hilo
+ * puede llegar antes que el evento de creación del pedido
+ */
+class KitchenBoardTests {
+
+    @Test
+    void statusChangeBeforeCreationIsAppliedWhenTheOrderArrives() {
+        KitchenBoard board = new KitchenBoard();
+        LocalDateTime fecha = LocalDateTime.now();
+
+        board.onStatusChanged(new OrderStatusChangedEvent(1L, 7L, OrderStatus.EN_PREPARACION, 1L, fecha.plusSeconds(1)));
+        board.onCreated(created(1L, fecha));
+
+        assertEquals(List.of(1L), idsIn(board, OrderStatus.EN_PREPARACION));
+        assertEquals(List.of(), idsIn(board, OrderStatus.PENDIENTE));
+
+        // Un evento viejo que llega después no lo hace retroceder
+        board.onStatusChanged(new OrderStatusChangedEvent(1L, 7L, OrderStatus.PENDIENTE, 0L, fecha));
+        assertEquals(List.of(1L), idsIn(board, OrderStatus.EN_PREPARACION));
+    }
+
+    @Test
+    void finalStatusBeforeCreationKeepsTheOrderOffTheBoard() {
+        KitchenBoard board = new KitchenBoard();
+        LocalDateTime fecha = LocalDateTime.now();
+
+        board.onStatusChanged(new OrderStatusChangedEvent(2L, 7L, OrderStatus.CANCELADO, 1L, fecha.plusSeconds(1)));
+        board.onCreated(created(2L, fecha));
+
+        assertEquals(0, board.getBoard(10).getTotalActivos());
+    }
+
+    private static OrderCreatedEvent created(Long id, LocalDateTime fecha) {
+        return new OrderCreatedEvent(id, 7L, new BigDecimal("25.00"), fecha, List.of());
+    }
+
+    private static List<Long> idsIn(KitchenBoard board, OrderStatus estado) {
+        return board.getBoard(10).getColumnas().stream()
+                .filter(columna -> columna.getEstado() == estado)
+                .flatMap(columna -> columna.getPedidos().stream())
+                .map(KitchenBoardResponse.Pedido::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,155 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.models.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mide el throughput de creación de pedidos de catering de 15 líneas:
+ * OrderService.createOrder (una transacción por pedido) frente a la ingesta asíncrona con group commit
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderCreationBenchmarkTests extends ServiceTestSupport {
+
+    private static final int LINES_PER_ORDER = 15;
+    private static final int THREADS = 4;
+    private static final int ORDERS_PER_THREAD = 250;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void createOrderThroughput() throws Exception {
+        OrderRequest request = cateringOrder();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Calentamiento
+        runAs(1, 100, () -> orderService.createOrder(request));
+
+        statistics.clear();
+        long start = System.nanoTime();
+        runAs(THREADS, ORDERS_PER_THREAD, () -> orderService.createOrder(request));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int orders = THREADS * ORDERS_PER_THREAD;
+        System.out.printf("createOrder (%d líneas, %d hilos): %,.0f pedidos/s, %.1f sentencias JDBC por pedido%n",
+                LINES_PER_ORDER, THREADS, orders / seconds,
+                (double) statistics.getPrepareStatementCount() / orders);
+    }
+
+    @Test
+    void asyncIngestionThroughput() throws Exception {
+        OrderRequest request = cateringOrder();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        AtomicLong throttled = new AtomicLong();
+        Runnable submit = () -> {
+            // Ante un 429 el cliente espera un momento y reintenta
+            while (true) {
+                try {
+                    orderIngestionService.submit(request);
+                    return;
+                } catch (OrderIngestionService.IngestionQueueFullException e) {
+                    throttled.incrementAndGet();
+                    LockSupport.parkNanos(1_000_000);
+                }
+            }
+        };
+
+        // Calentamiento
+        runAs(1, 100, submit);
+        awaitProcessed(100);
+
+        statistics.clear();
+        long start = System.nanoTime();
+        runAs(THREADS, ORDERS_PER_THREAD, submit);
+        int orders = THREADS * ORDERS_PER_THREAD;
+        awaitProcessed(100 + orders);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("ingesta asíncrona (%d líneas, %d hilos): %,.0f pedidos/s, %.1f sentencias JDBC por pedido, "
+                        + "%d reintentos por cola llena, %s lotes%n",
+                LINES_PER_ORDER, THREADS, orders / seconds,
+                (double) statistics.getPrepareStatementCount() / orders,
+                throttled.get(), orderIngestionService.getStats().get("batches"));
+    }
+
+    /**
+     * Espera a que el escritor haya resuelto la cantidad indicada de pedidos encolados
+     */
+    private void awaitProcessed(long expected) throws InterruptedException {
+        while (true) {
+            Map<String, Object> stats = orderIngestionService.getStats();
+            long processed = (Long) stats.get("created") + (Long) stats.get("rejected");
+            if (processed >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Pedido de 15 líneas sobre el catálogo inicial, con productos repetidos como ocurre en catering
+     */
+    private OrderRequest cateringOrder() {
+        List<Product> products = productRepository.findByDisponibleTrue();
+        List<OrderRequest.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            Product product = products.get(i % products.size());
+            items.add(new OrderRequest.OrderItemRequest(product.getId(), 1 + i % 3));
+        }
+        return new OrderRequest(items, "Av. Benchmark 123", "Pedido de prueba");
+    }
+
+    private void runAs(int threads, int ordersPerThread, Runnable action) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    authenticate(cliente);
+                    try {
+                        for (int i = 0; i < ordersPerThread; i++) {
+                            action.run();
+                        }
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
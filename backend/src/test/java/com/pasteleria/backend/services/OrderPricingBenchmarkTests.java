@@ -0,0 +1,120 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.models.Order;
+import com.pasteleria.backend.models.OrderItem;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.models.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara el armado de un pedido de catering grande (200 líneas) con aritmética BigDecimal
+ * (cálculo anterior, con el subtotal repetido en @PrePersist) frente a montos en centavos.
+ * Mide tiempo y bytes asignados por pedido con el ThreadMXBean de la JVM
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class OrderPricingBenchmarkTests {
+
+    private static final int LINES = 200;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final OrderService orderService = new OrderService();
+
+    @Test
+    void centsVersusBigDecimal() {
+        User usuario = new User();
+        Map<Long, Product> productos = new HashMap<>();
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (long i = 1; i <= LINES; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setNombre("Producto " + i);
+            product.setPrecio(new BigDecimal(String.format("%d.%02d", 10 + i, i % 100)));
+            product.setDisponible(true);
+            productos.put(i, product);
+            cantidades.put(i, (int) (i % 40) + 1);
+        }
+        OrderRequest request = new OrderRequest();
+        request.setDireccionEntrega("Av. Siempre Viva 742");
+
+        Order esperado = buildLegacy(usuario, request, cantidades, productos);
+        Order actual = buildCents(usuario, request, cantidades, productos);
+        assertEquals(0, esperado.getTotal().compareTo(actual.getTotal()));
+
+        Result legacy = measure(() -> buildLegacy(usuario, request, cantidades, productos));
+        Result cents = measure(() -> buildCents(usuario, request, cantidades, productos));
+
+        System.out.printf("Pedido de %d líneas - BigDecimal: %,.0f ns/op, %,d bytes/op | centavos: %,.0f ns/op, %,d bytes/op%n",
+                LINES, legacy.nanosPerOp, legacy.bytesPerOp, cents.nanosPerOp, cents.bytesPerOp);
+        System.out.printf("Reducción: tiempo x%.2f, asignación x%.2f%n",
+                legacy.nanosPerOp / cents.nanosPerOp, (double) legacy.bytesPerOp / cents.bytesPerOp);
+    }
+
+    private Order buildCents(User usuario, OrderRequest request, Map<Long, Integer> cantidades,
+                             Map<Long, Product> productos) {
+        Order order = orderService.buildOrder(usuario, request, cantidades, productos);
+        // Lo que hace Hibernate al persistir
+        order.getItems().forEach(OrderItem::calcularSubtotal);
+        return order;
+    }
+
+    /**
+     * Cálculo anterior: multiply/add con BigDecimal por línea y el subtotal recalculado al persistir
+     */
+    private static Order buildLegacy(User usuario, OrderRequest request, Map<Long, Integer> cantidades,
+                                     Map<Long, Product> productos) {
+        Order order = new Order();
+        order.setUsuario(usuario);
+        order.setDireccionEntrega(request.getDireccionEntrega());
+        order.setNotas(request.getNotas());
+        order.setEstado(OrderStatus.PENDIENTE);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            Product product = productos.get(linea.getKey());
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProducto(product);
+            orderItem.setCantidad(linea.getValue());
+            orderItem.setPrecioUnitario(product.getPrecio());
+            orderItem.setSubtotal(product.getPrecio().multiply(BigDecimal.valueOf(linea.getValue())));
+            order.addItem(orderItem);
+            total = total.add(orderItem.getSubtotal());
+        }
+        order.setTotal(total);
+
+        order.getItems().forEach(item ->
+                item.setSubtotal(item.getPrecioUnitario().multiply(BigDecimal.valueOf(item.getCantidad()))));
+        return order;
+    }
+
+    private static Result measure(Runnable task) {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        return new Result((double) elapsed / ITERATIONS, bytes / ITERATIONS);
+    }
+
+    private record Result(double nanosPerOp, long bytesPerOp) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.CursorPage;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que los listados de pedidos ejecuten un número constante de sentencias SQL,
+ * sin importar cuántos pedidos, items o asignaciones existan
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderServiceQueryCountTests extends ServiceTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void orderListsUseConstantNumberOfStatements() {
+        createOrders(2);
+        long allSmall = countStatements(() -> orderService.getAllOrders(null, 100));
+        long byStatusSmall = countStatements(() -> orderService.getOrdersByStatus(OrderStatus.POR_ENTREGAR, null, 100));
+        authenticate(cliente);
+        long byUserSmall = countStatements(() -> orderService.getOrdersByUser(null, 100));
+
+        createOrders(10);
+        long allLarge = countStatements(() -> orderService.getAllOrders(null, 100));
+        long byStatusLarge = countStatements(() -> orderService.getOrdersByStatus(OrderStatus.POR_ENTREGAR, null, 100));
+        authenticate(cliente);
+        long byUserLarge = countStatements(() -> orderService.getOrdersByUser(null, 100));
+
+        assertEquals(allSmall, allLarge);
+        assertEquals(byStatusSmall, byStatusLarge);
+        assertEquals(byUserSmall, byUserLarge);
+        // Una consulta para las claves de la página y otra para el detalle de esos pedidos
+        assertTrue(allLarge <= 2, "getAllOrders ejecutó " + allLarge + " sentencias");
+        assertTrue(byStatusLarge <= 2, "getOrdersByStatus ejecutó " + byStatusLarge + " sentencias");
+        assertTrue(byUserLarge <= 2, "getOrdersByUser ejecutó " + byUserLarge + " sentencias");
+    }
+
+    /**
+     * Crea pedidos de varias líneas y asigna repartidor a la mitad de ellos
+     */
+    private void createOrders(int count) {
+        List<Product> products = productRepository.findByDisponibleTrue();
+        for (int i = 0; i < count; i++) {
+            authenticate(cliente);
+            OrderResponse order = orderService.createOrder(new OrderRequest(List.of(
+                    new OrderRequest.OrderItemRequest(products.get(0).getId(), 1),
+                    new OrderRequest.OrderItemRequest(products.get(1).getId(), 2),
+                    new OrderRequest.OrderItemRequest(products.get(2).getId(), 3)
+            ), "Calle Prueba " + i, null));
+            if (i % 2 == 0) {
+                authenticate(admin);
+                deliveryService.assignOrderToDelivery(order.getId(), repartidor.getId());
+            }
+        }
+    }
+
+    private long countStatements(Supplier<CursorPage<OrderResponse>> query) {
+        statistics.clear();
+        List<OrderResponse> result = query.get().getItems();
+        assertTrue(result.stream().allMatch(order -> order.getItems() != null));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,150 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.dto.OrderResponse;
+import com.pasteleria.backend.models.OrderStatus;
+import com.pasteleria.backend.models.Product;
+import com.pasteleria.backend.models.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Prueba de estrés de los cambios de estado concurrentes: un ADMIN que cancela y un repartidor
+ * que entrega el mismo pedido a la vez. Exactamente uno debe ganar y el resto recibir un conflicto
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN"})
+class OrderStatusConcurrencyTests extends ServiceTestSupport {
+
+    private static final int ORDERS = 40;
+    private static final int RACERS_PER_SIDE = 2;
+    private static final int BENCHMARK_WARMUP_ORDERS = 50;
+    private static final int BENCHMARK_ORDERS = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Test
+    void concurrentCancelAndDeliverHaveExactlyOneWinner() throws Exception {
+        List<Long> latencies = raceOrders(ORDERS);
+        assertEquals(ORDERS * RACERS_PER_SIDE * 2, latencies.size(), "Todos los intentos deben terminar");
+    }
+
+    /**
+     * La misma carrera con más pedidos, midiendo la latencia de cada intento (ganador o conflicto)
+     * Ejecutar con: mvn test -Pbenchmark
+     */
+    @Tag("benchmark")
+    @Test
+    void concurrentStatusChangeLatency() throws Exception {
+        raceOrders(BENCHMARK_WARMUP_ORDERS);
+        List<Long> sorted = new ArrayList<>(raceOrders(BENCHMARK_ORDERS));
+        Collections.sort(sorted);
+        System.out.printf("Cambios de estado concurrentes: %d intentos, p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                sorted.size(), sorted.get(sorted.size() / 2) / 1e6, sorted.get(sorted.size() * 99 / 100) / 1e6,
+                sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    @Test
+    void staleVersionIsRejectedWithConflict() {
+        OrderResponse order = assignedOrder();
+
+        authenticate(admin);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.EN_PREPARACION, order.getVersion());
+        assertThrows(OrderConflictException.class,
+                () -> orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELADO, order.getVersion()));
+        assertEquals(OrderStatus.EN_PREPARACION, orderService.getOrderById(order.getId()).getEstado());
+    }
+
+    /**
+     * Hace competir a ADMIN y repartidor por cada pedido y verifica que haya un único ganador.
+     * Devuelve la latencia en nanosegundos de todos los intentos
+     */
+    private List<Long> raceOrders(int orders) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(RACERS_PER_SIDE * 2);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int n = 0; n < orders; n++) {
+                OrderResponse order = assignedOrder();
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger winners = new AtomicInteger();
+                AtomicInteger conflicts = new AtomicInteger();
+
+                List<Future<?>> futures = new ArrayList<>();
+                for (int r = 0; r < RACERS_PER_SIDE; r++) {
+                    futures.add(pool.submit(race(start, admin, winners, conflicts, latencies,
+                            () -> orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELADO, order.getVersion()))));
+                    futures.add(pool.submit(race(start, repartidor, winners, conflicts, latencies,
+                            () -> deliveryService.updateDeliveryStatus(order.getId(), OrderStatus.ENTREGADO, order.getVersion()))));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                assertEquals(1, winners.get(), "Debe haber un único ganador por pedido");
+                assertEquals(RACERS_PER_SIDE * 2 - 1, conflicts.get());
+
+                authenticate(admin);
+                OrderResponse result = orderService.getOrderById(order.getId());
+                assertEquals(order.getVersion() + 1, result.getVersion(), "Solo el ganador incrementa la versión");
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return latencies;
+    }
+
+    private Runnable race(CountDownLatch start, User user, AtomicInteger winners, AtomicInteger conflicts,
+                          List<Long> latencies, Supplier<OrderResponse> update) {
+        return () -> {
+            authenticate(user);
+            try {
+                start.await();
+                long t0 = System.nanoTime();
+                try {
+                    update.get();
+                    winners.incrementAndGet();
+                } catch (OrderConflictException e) {
+                    conflicts.incrementAndGet();
+                } finally {
+                    latencies.add(System.nanoTime() - t0);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    /**
+     * Pedido nuevo asignado al repartidor de prueba (estado POR_ENTREGAR)
+     */
+    private OrderResponse assignedOrder() {
+        Product product = productRepository.findByDisponibleTrue().get(0);
+        authenticate(cliente);
+        OrderResponse order = orderService.createOrder(new OrderRequest(
+                List.of(new OrderRequest.OrderItemRequest(product.getId(), 1)), "Av. Concurrencia 1", null));
+        authenticate(admin);
+        return deliveryService.assignOrderToDelivery(order.getId(), repartidor.getId());
+    }
+}
@@ -0,0 +1,136 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.dto.DeliveryZoneRequest;
+import com.pasteleria.backend.dto.DeliveryZoneResponse;
+import com.pasteleria.backend.dto.OrderRequest;
+import com.pasteleria.backend.models.Order;
+import com.pasteleria.backend.models.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Costo de envío al armar el pedido: se suma al total según la zona, se rechazan coordenadas
+ * fuera de zona, incompletas o ausentes, y sin zonas definidas no se cobra envío
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN"})
+class OrderZoneFeeTests extends ServiceTestSupport {
+
+    private static final BigDecimal COSTO_ENVIO = new BigDecimal("7.50");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DeliveryZoneService deliveryZoneService;
+
+    private final List<Long> zonas = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.findByDisponibleTrue().get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Borrar las zonas deja el índice vacío para el resto de las pruebas
+        zonas.forEach(deliveryZoneService::deleteZone);
+        zonas.clear();
+    }
+
+    @Test
+    void zoneFeeIsAddedToTotal() {
+        Long zonaId = createSquareZone();
+
+        Order order = build(-12.05, -77.05);
+
+        assertEquals(zonaId, order.getZonaId());
+        assertAmount(COSTO_ENVIO, order.getCostoEnvio());
+        assertAmount(subtotal().add(COSTO_ENVIO), order.getTotal());
+        assertEquals(Double.valueOf(-12.05), order.getLatitud());
+        assertEquals(Double.valueOf(-77.05), order.getLongitud());
+    }
+
+    @Test
+    void coordinatesOutsideEveryZoneAreRejected() {
+        createSquareZone();
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> build(-12.50, -77.05));
+        assertEquals("La dirección está fuera de la zona de reparto", error.getMessage());
+    }
+
+    @Test
+    void loneLatitudOrLongitudIsRejected() {
+        createSquareZone();
+
+        RuntimeException soloLatitud = assertThrows(RuntimeException.class, () -> build(-12.05, null));
+        assertEquals("Debe indicar latitud y longitud", soloLatitud.getMessage());
+        RuntimeException soloLongitud = assertThrows(RuntimeException.class, () -> build(null, -77.05));
+        assertEquals("Debe indicar latitud y longitud", soloLongitud.getMessage());
+    }
+
+    @Test
+    void emptyIndexChargesNoFee() {
+        Order order = build(-12.50, -77.05);
+
+        assertNull(order.getZonaId());
+        assertAmount(BigDecimal.ZERO, order.getCostoEnvio());
+        assertAmount(subtotal(), order.getTotal());
+    }
+
+    @Test
+    void orderWithoutCoordinatesIsRejectedWhenZonesExist() {
+        createSquareZone();
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> build(null, null));
+        assertEquals("Debe indicar latitud y longitud", error.getMessage());
+    }
+
+    @Test
+    void orderWithoutCoordinatesIsAcceptedWithoutZones() {
+        Order order = build(null, null);
+
+        assertNull(order.getZonaId());
+        assertNull(order.getCostoEnvio());
+        assertAmount(subtotal(), order.getTotal());
+    }
+
+    /**
+     * Cuadrado de 0.1° alrededor de (-12.05, -77.05); la reconstrucción del índice corre al confirmar
+     */
+    private Long createSquareZone() {
+        DeliveryZoneResponse zona = deliveryZoneService.createZone(new DeliveryZoneRequest("Zona de prueba", List.of(
+                new DeliveryZoneRequest.Vertice(-12.10, -77.10),
+                new DeliveryZoneRequest.Vertice(-12.10, -77.00),
+                new DeliveryZoneRequest.Vertice(-12.00, -77.00),
+                new DeliveryZoneRequest.Vertice(-12.00, -77.10)), COSTO_ENVIO, true));
+        zonas.add(zona.getId());
+        return zona.getId();
+    }
+
+    private Order build(Double latitud, Double longitud) {
+        OrderRequest request = new OrderRequest(List.of(new OrderRequest.OrderItemRequest(product.getId(), 2)),
+                "Av. Zonal 1", null, null, latitud, longitud);
+        return orderService.buildOrder(cliente, request, Map.of(product.getId(), 2), Map.of(product.getId(), product));
+    }
+
+    private BigDecimal subtotal() {
+        return product.getPrecio().multiply(BigDecimal.valueOf(2));
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertEquals(0, expected.compareTo(actual), () -> "Se esperaba " + expected + " y se obtuvo " + actual);
+    }
+}
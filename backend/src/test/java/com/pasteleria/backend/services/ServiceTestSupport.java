@@ -0,0 +1,44 @@
+package com.pasteleria.backend.services;
+
+import com.pasteleria.backend.models.User;
+import com.pasteleria.backend.repositories.ProductRepository;
+import com.pasteleria.backend.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Base de las pruebas de servicios sobre pedidos: usuarios sembrados por DataLoader
+ * y autenticación en el hilo actual, que los servicios leen con AuthService
+ */
+abstract class ServiceTestSupport {
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    protected User cliente;
+    protected User admin;
+    protected User repartidor;
+
+    @BeforeEach
+    void loadSeededUsers() {
+        cliente = userRepository.findByEmail("maria@gmail.com").orElseThrow();
+        admin = userRepository.findByEmail("admin@pasteleria.com").orElseThrow();
+        repartidor = userRepository.findByEmail("delivery@pasteleria.com").orElseThrow();
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    protected void authenticate(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
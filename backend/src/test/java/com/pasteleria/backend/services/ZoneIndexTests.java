@@ -0,0 +1,35 @@
+package com.pasteleria.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Búsqueda de zonas en la grilla: polígonos cóncavos, zonas superpuestas y puntos fuera de toda zona
+ */
+class ZoneIndexTests {
+
+    @Test
+    void findsContainingZone() {
+        // Zona 1: "L" cóncava; zona 2: cuadrado que se superpone con el brazo derecho de la "L"
+        ZoneIndex.Zone ele = new ZoneIndex.Zone(1L, "Centro", 500,
+                new double[]{0, 0, 1, 1, 3, 3}, new double[]{0, 3, 3, 1, 1, 0});
+        ZoneIndex.Zone cuadrado = new ZoneIndex.Zone(2L, "Norte", 900,
+                new double[]{0.5, 0.5, 2, 2}, new double[]{2, 4, 4, 2});
+        ZoneIndex index = new ZoneIndex(List.of(ele, cuadrado), 8);
+
+        assertEquals(1L, index.find(2.5, 0.5).id);
+        // Hueco de la "L": solo lo cubre el cuadrado
+        assertEquals(2L, index.find(1.5, 2.5).id);
+        // Superposición: gana la zona de menor ID
+        assertEquals(1L, index.find(0.7, 2.5).id);
+        assertEquals(2L, index.find(1.9, 3.9).id);
+        assertNull(index.find(2.5, 2.5));
+        assertNull(index.find(-1, 0.5));
+        assertNull(index.find(3.5, 4.5));
+        assertNull(ZoneIndex.EMPTY.find(0, 0));
+    }
+}
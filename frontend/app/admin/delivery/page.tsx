@@ -27,14 +27,15 @@ export default function AdminDeliveryPage() {
 
   const loadData = async () => {
     try {
-      const [ordersData, personnelData] = await Promise.all([
-        orderService.getAllOrders(),
+      // Solo se piden los estados que pueden ser asignados (PENDIENTE, EN_PREPARACION o POR_ENTREGAR)
+      const [pendientes, enPreparacion, porEntregar, personnelData] = await Promise.all([
+        orderService.getAllOrdersInStatus('PENDIENTE'),
+        orderService.getAllOrdersInStatus('EN_PREPARACION'),
+        orderService.getAllOrdersInStatus('POR_ENTREGAR'),
         deliveryService.getDeliveryPersonnel(),
       ]);
-      // Filtrar pedidos que pueden ser asignados (PENDIENTE, EN_PREPARACION o POR_ENTREGAR)
-      const assignableOrders = ordersData.filter(
-        (o) => o.estado === 'PENDIENTE' || o.estado === 'EN_PREPARACION' || o.estado === 'POR_ENTREGAR'
-      );
+      const assignableOrders = [...pendientes, ...enPreparacion, ...porEntregar]
+        .sort((a, b) => b.fecha.localeCompare(a.fecha) || b.id - a.id);
       setOrders(assignableOrders);
       setDeliveryPersonnel(personnelData);
     } catch (error) {
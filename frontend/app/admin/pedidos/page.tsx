@@ -11,7 +11,9 @@ export default function AdminPedidosPage() {
   const { user, isAuthenticated, loading } = useAuth();
   const router = useRouter();
   const [orders, setOrders] = useState<Order[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [pageLoading, setPageLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [expandedOrder, setExpandedOrder] = useState<number | null>(null);
 
   useEffect(() => {
@@ -23,8 +25,9 @@ export default function AdminPedidosPage() {
 
   const loadOrders = async () => {
     try {
-      const data = await orderService.getAllOrders();
-      setOrders(data);
+      const page = await orderService.getAllOrders();
+      setOrders(page.orders);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error('Error cargando pedidos:', error);
     } finally {
@@ -32,11 +35,26 @@ export default function AdminPedidosPage() {
     }
   };
 
-  const handleStatusChange = async (orderId: number, newStatus: OrderStatus) => {
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
     try {
-      await orderService.updateOrderStatus(orderId, { estado: newStatus });
+      const page = await orderService.getAllOrders(nextCursor);
+      setOrders((prev) => [...prev, ...page.orders]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error cargando más pedidos:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const handleStatusChange = async (order: Order, newStatus: OrderStatus) => {
+    try {
+      const updated = await orderService.updateOrderStatus(order.id, { estado: newStatus, version: order.version });
       alert('Estado actualizado exitosamente');
-      loadOrders();
+      // Se reemplaza en su lugar para no perder las páginas ya cargadas
+      setOrders((prev) => prev.map((o) => (o.id === updated.id ? updated : o)));
     } catch (error: unknown) {
       const msg = (typeof error === 'object' && error && 'response' in error)
         ? (error as { response?: { data?: { message?: string } } }).response?.data?.message
@@ -81,7 +99,7 @@ export default function AdminPedidosPage() {
       <div className="container mx-auto px-4">
         <h1 className="text-4xl font-bold text-gray-800 mb-8">Gestión de Pedidos</h1>
 
-        {/* Resumen */}
+        {/* Resumen de los pedidos cargados */}
         <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mb-8">
           {(['PENDIENTE', 'EN_PREPARACION', 'EN_CAMINO', 'ENTREGADO'] as OrderStatus[]).map((status) => (
             <div key={status} className="bg-white rounded-lg shadow p-4">
@@ -134,7 +152,7 @@ export default function AdminPedidosPage() {
                     </label>
                     <select
                       value={order.estado}
-                      onChange={(e) => handleStatusChange(order.id, e.target.value as OrderStatus)}
+                      onChange={(e) => handleStatusChange(order, e.target.value as OrderStatus)}
                       className="w-full md:w-64 px-4 py-2 border rounded-lg focus:ring-2 focus:ring-pink-500"
                     >
                       <option value="PENDIENTE">PENDIENTE</option>
@@ -200,6 +218,17 @@ export default function AdminPedidosPage() {
             </div>
           ))}
         </div>
+        {nextCursor && (
+          <div className="text-center mt-8">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="bg-white border border-gray-300 text-gray-700 px-6 py-3 rounded-lg font-semibold hover:bg-gray-100 transition disabled:opacity-50"
+            >
+              {loadingMore ? 'Cargando...' : 'Cargar pedidos anteriores'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -3,17 +3,56 @@
 import { useState } from 'react';
 import { useCart } from '@/context/CartContext';
 import { orderService } from '@/services/orderService';
-import { Trash2, Plus, Minus, ShoppingCart, MapPin } from 'lucide-react';
+import { DeliveryFee } from '@/types';
+import { Trash2, Plus, Minus, ShoppingCart, MapPin, LocateFixed } from 'lucide-react';
 import { useRouter } from 'next/navigation';
 import Image from 'next/image';
 
+const errorMessage = (error: unknown): string | undefined =>
+  (typeof error === 'object' && error && 'response' in error)
+    ? (error as { response?: { data?: { message?: string } } }).response?.data?.message
+    : undefined;
+
 export default function CarritoPage() {
   const { cart, removeFromCart, updateQuantity, clearCart, getTotalPrice } = useCart();
   const [direccion, setDireccion] = useState('');
   const [notas, setNotas] = useState('');
   const [loading, setLoading] = useState(false);
+  // Coordenadas de entrega: el backend las exige cuando hay zonas de reparto y cobra el envío según la zona
+  const [ubicacion, setUbicacion] = useState<{ latitud: number; longitud: number } | null>(null);
+  const [envio, setEnvio] = useState<DeliveryFee | null>(null);
+  const [ubicacionError, setUbicacionError] = useState('');
+  const [locating, setLocating] = useState(false);
   const router = useRouter();
 
+  const handleLocate = () => {
+    if (!navigator.geolocation) {
+      setUbicacionError('Tu navegador no permite obtener la ubicación');
+      return;
+    }
+    setLocating(true);
+    navigator.geolocation.getCurrentPosition(
+      async (position) => {
+        const coords = { latitud: position.coords.latitude, longitud: position.coords.longitude };
+        setUbicacion(coords);
+        try {
+          setEnvio(await orderService.getDeliveryZone(coords.latitud, coords.longitud));
+          setUbicacionError('');
+        } catch (error: unknown) {
+          setEnvio(null);
+          setUbicacionError(errorMessage(error) || 'No se pudo calcular el costo de envío');
+        } finally {
+          setLocating(false);
+        }
+      },
+      () => {
+        setLocating(false);
+        setUbicacionError('No se pudo obtener tu ubicación');
+      },
+      { enableHighAccuracy: true, timeout: 10000 }
+    );
+  };
+
   const handleCheckout = async () => {
     if (!direccion.trim()) {
       alert('Por favor ingresa una dirección de entrega');
@@ -35,6 +74,8 @@ export default function CarritoPage() {
         })),
         direccionEntrega: direccion,
         notas: notas || undefined,
+        latitud: ubicacion?.latitud,
+        longitud: ubicacion?.longitud,
       };
 
       await orderService.createOrder(orderRequest);
@@ -42,10 +83,7 @@ export default function CarritoPage() {
       alert('¡Pedido realizado exitosamente!');
       router.push('/pedidos');
     } catch (error: unknown) {
-      const msg = (typeof error === 'object' && error && 'response' in error)
-        ? (error as { response?: { data?: { message?: string } } }).response?.data?.message
-        : undefined;
-      alert(msg || 'Error al realizar el pedido');
+      alert(errorMessage(error) || 'Error al realizar el pedido');
     } finally {
       setLoading(false);
     }
@@ -161,6 +199,25 @@ export default function CarritoPage() {
                 />
               </div>
 
+              {/* Ubicación */}
+              <div className="mb-4">
+                <button
+                  type="button"
+                  onClick={handleLocate}
+                  disabled={locating}
+                  className="w-full flex items-center justify-center gap-2 border border-pink-500 text-pink-600 py-2 rounded-lg hover:bg-pink-50 transition disabled:opacity-50 disabled:cursor-not-allowed"
+                >
+                  <LocateFixed className="w-4 h-4" />
+                  {locating ? 'Obteniendo ubicación...' : ubicacion ? 'Actualizar mi ubicación' : 'Usar mi ubicación'}
+                </button>
+                {envio && (
+                  <p className="text-sm text-green-700 mt-2">
+                    {envio.nombreZona ? `Zona de reparto: ${envio.nombreZona}` : 'Ubicación registrada'}
+                  </p>
+                )}
+                {ubicacionError && <p className="text-sm text-red-600 mt-2">{ubicacionError}</p>}
+              </div>
+
               {/* Notas */}
               <div className="mb-6">
                 <label className="block text-sm font-medium text-gray-700 mb-2">
@@ -181,9 +238,15 @@ export default function CarritoPage() {
                   <span className="text-gray-600">Subtotal:</span>
                   <span className="font-semibold">S/. {getTotalPrice().toFixed(2)}</span>
                 </div>
+                {envio && (
+                  <div className="flex justify-between text-lg mb-2">
+                    <span className="text-gray-600">Envío:</span>
+                    <span className="font-semibold">S/. {Number(envio.costoEnvio).toFixed(2)}</span>
+                  </div>
+                )}
                 <div className="flex justify-between text-xl font-bold text-gray-800">
                   <span>Total:</span>
-                  <span className="text-pink-600">S/. {getTotalPrice().toFixed(2)}</span>
+                  <span className="text-pink-600">S/. {(getTotalPrice() + Number(envio?.costoEnvio ?? 0)).toFixed(2)}</span>
                 </div>
               </div>
 
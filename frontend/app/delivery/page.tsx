@@ -1,6 +1,6 @@
 'use client';
 
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { deliveryService } from '@/services/deliveryService';
 import { Order, OrderStatus } from '@/types';
 import { Truck, MapPin, Phone, CheckCircle, ChevronDown, ChevronUp } from 'lucide-react';
@@ -11,7 +11,11 @@ export default function DeliveryPage() {
   const { user, isAuthenticated, loading: authLoading } = useAuth();
   const router = useRouter();
   const [orders, setOrders] = useState<Order[]>([]);
+  const [total, setTotal] = useState(0);
   const [pageLoading, setPageLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  // Páginas ya mostradas; el refresco periódico vuelve a pedir todas ellas
+  const loadedPages = useRef(1);
   const [expandedOrder, setExpandedOrder] = useState<number | null>(null);
 
   useEffect(() => {
@@ -34,8 +38,11 @@ export default function DeliveryPage() {
 
   const loadOrders = async () => {
     try {
-      const data = await deliveryService.getMyAssignedOrders();
-      setOrders(data);
+      const pages = await Promise.all(
+        Array.from({ length: loadedPages.current }, (_, page) => deliveryService.getMyAssignedOrders(page))
+      );
+      setOrders(pages.flatMap((p) => p.orders));
+      setTotal(pages[0].total);
     } catch (error) {
       console.error('Error cargando pedidos:', error);
     } finally {
@@ -43,11 +50,25 @@ export default function DeliveryPage() {
     }
   };
 
-  const handleStatusUpdate = async (orderId: number, newStatus: OrderStatus) => {
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const next = await deliveryService.getMyAssignedOrders(loadedPages.current);
+      loadedPages.current += 1;
+      setOrders((prev) => [...prev, ...next.orders.filter((o) => !prev.some((p) => p.id === o.id))]);
+      setTotal(next.total);
+    } catch (error) {
+      console.error('Error cargando más pedidos:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const handleStatusUpdate = async (order: Order, newStatus: OrderStatus) => {
     if (!confirm(`¿Cambiar estado a ${newStatus}?`)) return;
 
     try {
-      await deliveryService.updateDeliveryStatus(orderId, { estado: newStatus });
+      await deliveryService.updateDeliveryStatus(order.id, { estado: newStatus, version: order.version });
       alert('Estado actualizado exitosamente');
       loadOrders();
     } catch (error: unknown) {
@@ -186,7 +207,7 @@ export default function DeliveryPage() {
                       <div className="flex space-x-3">
                         {order.estado === 'POR_ENTREGAR' && (
                           <button
-                            onClick={() => handleStatusUpdate(order.id, 'EN_CAMINO')}
+                            onClick={() => handleStatusUpdate(order, 'EN_CAMINO')}
                             className="flex-1 bg-indigo-600 text-white py-3 rounded-lg font-semibold hover:bg-indigo-700 transition flex items-center justify-center"
                           >
                             <Truck className="w-5 h-5 mr-2" />
@@ -195,7 +216,7 @@ export default function DeliveryPage() {
                         )}
                         {order.estado === 'EN_CAMINO' && (
                           <button
-                            onClick={() => handleStatusUpdate(order.id, 'ENTREGADO')}
+                            onClick={() => handleStatusUpdate(order, 'ENTREGADO')}
                             className="flex-1 bg-green-600 text-white py-3 rounded-lg font-semibold hover:bg-green-700 transition flex items-center justify-center"
                           >
                             <CheckCircle className="w-5 h-5 mr-2" />
@@ -235,6 +256,18 @@ export default function DeliveryPage() {
           </div>
         )}
 
+        {orders.length < total && (
+          <div className="text-center mt-8">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="bg-white border border-gray-300 text-gray-700 px-6 py-3 rounded-lg font-semibold hover:bg-gray-100 transition disabled:opacity-50"
+            >
+              {loadingMore ? 'Cargando...' : `Cargar más (${orders.length} de ${total})`}
+            </button>
+          </div>
+        )}
+
         {/* Sin pedidos */}
         {orders.length === 0 && (
           <div className="text-center py-16">
@@ -7,7 +7,9 @@ import { Package, Clock, Truck, CheckCircle, XCircle, ChevronDown, ChevronUp } f
 
 export default function PedidosPage() {
   const [orders, setOrders] = useState<Order[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [expandedOrder, setExpandedOrder] = useState<number | null>(null);
 
   useEffect(() => {
@@ -16,8 +18,9 @@ export default function PedidosPage() {
 
   const loadOrders = async () => {
     try {
-      const data = await orderService.getMyOrders();
-      setOrders(data);
+      const page = await orderService.getMyOrders();
+      setOrders(page.orders);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error('Error cargando pedidos:', error);
     } finally {
@@ -25,6 +28,20 @@ export default function PedidosPage() {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await orderService.getMyOrders(nextCursor);
+      setOrders((prev) => [...prev, ...page.orders]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error cargando más pedidos:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const getStatusColor = (status: OrderStatus) => {
     const colors: Record<OrderStatus, string> = {
       PENDIENTE: 'bg-yellow-100 text-yellow-800',
@@ -172,7 +189,18 @@ export default function PedidosPage() {
             </div>
           ))}
         </div>
+        {nextCursor && (
+          <div className="text-center mt-8">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="bg-white border border-gray-300 text-gray-700 px-6 py-3 rounded-lg font-semibold hover:bg-gray-100 transition disabled:opacity-50"
+            >
+              {loadingMore ? 'Cargando...' : 'Cargar pedidos anteriores'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
-}
\ No newline at end of file
+}
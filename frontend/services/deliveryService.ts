@@ -1,16 +1,24 @@
 import api from './api';
-import { Order, UpdateStatusRequest, User, CreateDeliveryRequest } from '@/types';
+import { Order, OrderPage, UpdateStatusRequest, User, CreateDeliveryRequest } from '@/types';
+
+// Coincide con delivery.page.default-size del backend
+export const DELIVERY_PAGE_SIZE = 50;
+
+const toOrderPage = (orders: Order[], totalHeader: unknown): OrderPage => ({
+  orders,
+  total: totalHeader != null ? Number(totalHeader) : orders.length,
+});
 
 /**
  * Servicio de delivery
  */
 export const deliveryService = {
   /**
-   * Obtiene los pedidos asignados al delivery actual
+   * Obtiene una página de los pedidos asignados al delivery actual (page empieza en 0)
    */
-  async getMyAssignedOrders(): Promise<Order[]> {
-    const response = await api.get<Order[]>('/delivery/my-orders');
-    return response.data;
+  async getMyAssignedOrders(page = 0, size = DELIVERY_PAGE_SIZE): Promise<OrderPage> {
+    const response = await api.get<Order[]>('/delivery/my-orders', { params: { page, size } });
+    return toOrderPage(response.data, response.headers['x-total-count']);
   },
 
   /**
@@ -40,11 +48,11 @@ export const deliveryService = {
   },
 
   /**
-   * Obtiene todos los pedidos con asignaciones - ADMIN
+   * Obtiene una página de los pedidos con asignaciones - ADMIN
    */
-  async getAllOrdersWithDelivery(): Promise<Order[]> {
-    const response = await api.get<Order[]>('/delivery/admin/all-assignments');
-    return response.data;
+  async getAllOrdersWithDelivery(page = 0, size = DELIVERY_PAGE_SIZE): Promise<OrderPage> {
+    const response = await api.get<Order[]>('/delivery/admin/all-assignments', { params: { page, size } });
+    return toOrderPage(response.data, response.headers['x-total-count']);
   },
 
   /**
@@ -1,5 +1,13 @@
 import api from './api';
-import { Order, OrderRequest, UpdateStatusRequest } from '@/types';
+import { DeliveryFee, Order, OrderCursorPage, OrderRequest, OrderStatus, UpdateStatusRequest } from '@/types';
+
+// Coincide con orders.page.max-size del backend
+const MAX_PAGE_SIZE = 100;
+
+const toCursorPage = (orders: Order[], nextCursor: unknown): OrderCursorPage => ({
+  orders,
+  nextCursor: typeof nextCursor === 'string' && nextCursor ? nextCursor : null,
+});
 
 /**
  * Servicio de pedidos
@@ -14,13 +22,25 @@ export const orderService = {
   },
 
   /**
-   * Obtiene los pedidos del usuario actual - CLIENTE
+   * Zona de reparto y costo de envío de unas coordenadas; responde 404 fuera de zona - CLIENTE
    */
-  async getMyOrders(): Promise<Order[]> {
-    const response = await api.get<Order[]>('/orders/my-orders');
+  async getDeliveryZone(latitud: number, longitud: number): Promise<DeliveryFee> {
+    const response = await api.get<DeliveryFee>('/orders/delivery-zone', {
+      params: { latitud, longitud },
+    });
     return response.data;
   },
 
+  /**
+   * Obtiene una página de los pedidos del usuario actual; sin cursor, la más reciente - CLIENTE
+   */
+  async getMyOrders(cursor?: string | null): Promise<OrderCursorPage> {
+    const response = await api.get<Order[]>('/orders/my-orders', {
+      params: { cursor: cursor ?? undefined },
+    });
+    return toCursorPage(response.data, response.headers['x-next-cursor']);
+  },
+
   /**
    * Obtiene un pedido por ID
    */
@@ -30,11 +50,28 @@ export const orderService = {
   },
 
   /**
-   * Obtiene todos los pedidos - ADMIN
+   * Obtiene una página de todos los pedidos, opcionalmente de un estado - ADMIN
    */
-  async getAllOrders(): Promise<Order[]> {
-    const response = await api.get<Order[]>('/orders/admin/all');
-    return response.data;
+  async getAllOrders(cursor?: string | null, estado?: OrderStatus, size?: number): Promise<OrderCursorPage> {
+    const response = await api.get<Order[]>('/orders/admin/all', {
+      params: { cursor: cursor ?? undefined, estado, size },
+    });
+    return toCursorPage(response.data, response.headers['x-next-cursor']);
+  },
+
+  /**
+   * Recorre todas las páginas de un estado - ADMIN
+   * Solo para estados activos, que son pocos; el historial se lee página a página
+   */
+  async getAllOrdersInStatus(estado: OrderStatus): Promise<Order[]> {
+    const orders: Order[] = [];
+    let cursor: string | null = null;
+    do {
+      const page: OrderCursorPage = await this.getAllOrders(cursor, estado, MAX_PAGE_SIZE);
+      orders.push(...page.orders);
+      cursor = page.nextCursor;
+    } while (cursor);
+    return orders;
   },
 
   /**
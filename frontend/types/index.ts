@@ -63,6 +63,16 @@ export interface OrderRequest {
   items: OrderItemRequest[];
   direccionEntrega: string;
   notas?: string;
+  // Obligatorias cuando hay zonas de reparto definidas
+  latitud?: number;
+  longitud?: number;
+}
+
+// Zona y costo de envío de unas coordenadas (zonaId nulo si no hay zonas definidas)
+export interface DeliveryFee {
+  zonaId: number | null;
+  nombreZona: string | null;
+  costoEnvio: number;
 }
 
 export interface OrderItem {
@@ -99,8 +109,22 @@ export interface Order {
   notas?: string;
   items: OrderItem[];
   deliveryInfo?: DeliveryInfo;
+  version: number;
+}
+
+// Página numerada de pedidos; total sale del header X-Total-Count
+export interface OrderPage {
+  orders: Order[];
+  total: number;
+}
+
+// Página por cursor; nextCursor sale del header X-Next-Cursor y es null en la última página
+export interface OrderCursorPage {
+  orders: Order[];
+  nextCursor: string | null;
 }
 
 export interface UpdateStatusRequest {
   estado: OrderStatus;
+  version: number;
 }